@@ -0,0 +1,53 @@
+package org.example;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+/** 비교 기준: LrcParser 이전의 정규식 기반 parseLrc 그대로. */
+final class LegacyLrc {
+
+    private LegacyLrc() {}
+
+    static List<LyricLine> parse(Path lrcPath) throws Exception {
+        List<String> all = Files.readAllLines(lrcPath);
+        List<LyricLine> out = new ArrayList<>();
+        for (String raw : all) {
+            String line = raw.trim();
+            if (line.isEmpty()) continue;
+            if (line.matches("^\\[(ti|ar|al|by|offset):.*\\]$")) continue;
+            java.util.regex.Matcher m = java.util.regex.Pattern
+                    .compile("\\[(\\d{1,2}):(\\d{2})(?:\\.(\\d{1,2}))?\\]")
+                    .matcher(line);
+            double firstTs = -1;
+            int last = 0;
+            while (m.find()) {
+                int mm = Integer.parseInt(m.group(1));
+                int ss = Integer.parseInt(m.group(2));
+                int cs = m.group(3) != null ? Integer.parseInt(m.group(3)) : 0;
+                double frac = (m.group(3) == null) ? 0.0 : cs / Math.pow(10, m.group(3).length());
+                double t = mm*60 + ss + frac;
+                if (firstTs < 0) firstTs = t;
+                last = m.end();
+            }
+            String text = line.substring(last).trim();
+            if (firstTs >= 0 && !text.isEmpty()) out.add(new LyricLine(firstTs, text));
+            else if (!text.isEmpty()) out.add(new LyricLine(-1, text));
+        }
+        out.sort(Comparator.comparingDouble(ll -> ll.timeSec < 0 ? Double.MAX_VALUE : ll.timeSec));
+        return out;
+    }
+
+    /** 예전 updateLyricsHighlight의 선형 탐색 */
+    static int linearIndex(List<LyricLine> lines, double curSec) {
+        int idx = -1;
+        for (int i = 0; i < lines.size(); i++) {
+            double t = lines.get(i).timeSec;
+            if (t < 0) continue;
+            if (t <= curSec) idx = i; else break;
+        }
+        return idx;
+    }
+}
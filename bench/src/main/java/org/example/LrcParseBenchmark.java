@@ -0,0 +1,77 @@
+package org.example;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/** LRC 파싱 처리량: 스트리밍 LrcParser 대 예전 정규식 파서. 파일은 페이지 캐시에 올라간 상태. */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class LrcParseBenchmark {
+
+    @Param({"60", "10000"})
+    public int lines;
+
+    private Path lrc;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        StringBuilder sb = new StringBuilder();
+        sb.append("[ti:Benchmark]\n[ar:Synthetic]\n[offset:+120]\n");
+        for (int i = 0; i < lines; i++) {
+            long ms = i * 2300L;
+            stamp(sb, ms);
+            if (i % 8 == 0) stamp(sb, ms + 600_000); // 반복 후렴
+            if (i % 5 == 0) {
+                sb.append("<");
+                appendTime(sb, ms);
+                sb.append(">단어 <");
+                appendTime(sb, ms + 400);
+                sb.append(">단위 가사 ").append(i).append('\n');
+            } else {
+                sb.append("가사 줄 번호 ").append(i).append(" lorem ipsum dolor sit amet\n");
+            }
+        }
+        lrc = Files.createTempFile("bench", ".lrc");
+        Files.writeString(lrc, sb);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        Files.deleteIfExists(lrc);
+    }
+
+    @Benchmark
+    public List<LyricLine> streaming() throws IOException {
+        return LrcParser.parse(lrc);
+    }
+
+    @Benchmark
+    public List<LyricLine> regexBaseline() throws Exception {
+        return LegacyLrc.parse(lrc);
+    }
+
+    private static void stamp(StringBuilder sb, long ms) {
+        sb.append('[');
+        appendTime(sb, ms);
+        sb.append(']');
+    }
+
+    private static void appendTime(StringBuilder sb, long ms) {
+        long m = ms / 60000, s = (ms / 1000) % 60, cs = (ms / 10) % 100;
+        if (m < 10) sb.append('0');
+        sb.append(m).append(':');
+        if (s < 10) sb.append('0');
+        sb.append(s).append('.');
+        if (cs < 10) sb.append('0');
+        sb.append(cs);
+    }
+}
@@ -0,0 +1,56 @@
+package org.example;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 재생 틱 한 묶음(약 60fps로 곡 전체) 동안 현재 가사 줄 찾기.
+ * 커서 전진, 매번 이진 탐색, 예전 선형 탐색을 비교한다.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class LyricLookupBenchmark {
+
+    @Param({"20", "10000"})
+    public int lines;
+
+    private static final int TICKS = 20_000;
+
+    private List<LyricLine> lyricLines;
+    private LyricTimeline timeline;
+    private long[] ticks;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        lyricLines = new ArrayList<>(lines);
+        for (int i = 0; i < lines; i++) lyricLines.add(new LyricLine(i * 3.0, "line " + i));
+        timeline = LyricTimeline.of(lyricLines);
+        long lengthMs = lines * 3000L;
+        ticks = new long[TICKS];
+        for (int i = 0; i < TICKS; i++) ticks[i] = lengthMs * i / TICKS;
+    }
+
+    @Benchmark
+    public void cursor(Blackhole bh) {
+        timeline.seek(0);
+        for (long t : ticks) bh.consume(timeline.advance(t));
+    }
+
+    @Benchmark
+    public void binarySearch(Blackhole bh) {
+        for (long t : ticks) bh.consume(timeline.indexAt(t));
+    }
+
+    @Benchmark
+    public void linearBaseline(Blackhole bh) {
+        for (long t : ticks) bh.consume(LegacyLrc.linearIndex(lyricLines, t / 1000.0));
+    }
+}
@@ -0,0 +1,87 @@
+package org.example;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/** 합성 폴더 트리에서 스캔 처리량: LibraryScanner 대 기존 Files.walk + sort. */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class ScanBenchmark {
+
+    @Param({"5000", "50000"})
+    public int files;
+
+    private static final int FILES_PER_DIR = 40;
+
+    private Path root;
+    private LibraryScanner scanner;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        root = Files.createTempDirectory("scan-bench");
+        int dirs = (files + FILES_PER_DIR - 1) / FILES_PER_DIR;
+        int made = 0;
+        for (int d = 0; d < dirs; d++) {
+            // 아티스트/앨범 두 단계 구조
+            Path dir = root.resolve("artist" + (d / 10)).resolve("album" + d);
+            Files.createDirectories(dir);
+            Files.createFile(dir.resolve("cover.jpg"));
+            for (int f = 0; f < FILES_PER_DIR && made < files; f++, made++) {
+                Files.createFile(dir.resolve(String.format("%02d - track.mp3", f)));
+            }
+        }
+        scanner = new LibraryScanner(TrackFiles::isTrackFile);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        scanner.shutdown();
+        try (Stream<Path> s = Files.walk(root)) {
+            for (Path p : s.sorted(Comparator.reverseOrder()).collect(Collectors.toList())) Files.delete(p);
+        }
+    }
+
+    @Benchmark
+    public long libraryScanner() throws InterruptedException {
+        CountDownLatch done = new CountDownLatch(1);
+        AtomicLong count = new AtomicLong();
+        scanner.scan(root, new LibraryScanner.Listener() {
+            @Override
+            public void onBatch(List<Path> batch, long filesFound, long dirsVisited) {
+                count.addAndGet(batch.size());
+            }
+
+            @Override
+            public void onDone(boolean cancelled, long filesFound) {
+                done.countDown();
+            }
+        });
+        done.await();
+        return count.get();
+    }
+
+    /** 예전 chooseFolder 경로 */
+    @Benchmark
+    public List<Path> filesWalkBaseline() throws IOException {
+        try (Stream<Path> s = Files.walk(root)) {
+            return s.filter(p -> !Files.isDirectory(p))
+                    .filter(p -> p.getFileName().toString().toLowerCase().endsWith(".mp3"))
+                    .sorted()
+                    .collect(Collectors.toList());
+        }
+    }
+}
@@ -0,0 +1,99 @@
+package org.example;
+
+import org.jaudiotagger.audio.AudioFile;
+import org.jaudiotagger.audio.AudioFileIO;
+import org.jaudiotagger.tag.FieldKey;
+import org.jaudiotagger.tag.Tag;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/** 태그 읽기 지연: 단일 파싱, 예전 이중 파싱, 디스크 인덱스 적중. */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class TagReadBenchmark {
+
+    private static final int TRACKS = 32;
+
+    private Path dir;
+    private Path[] tracks;
+    private MetadataIndex index;
+    private int next;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        java.util.logging.Logger.getLogger("org.jaudiotagger").setLevel(java.util.logging.Level.SEVERE);
+        dir = Files.createTempDirectory("tag-bench");
+        tracks = new Path[TRACKS];
+        for (int i = 0; i < TRACKS; i++) {
+            Path p = dir.resolve("track" + i + ".mp3");
+            writeSilentMp3(p, 400);
+            AudioFile af = AudioFileIO.read(p.toFile());
+            Tag tag = af.getTagOrCreateAndSetDefault();
+            tag.setField(FieldKey.TITLE, "제목 " + i);
+            tag.setField(FieldKey.ARTIST, "아티스트 " + (i % 5));
+            tag.setField(FieldKey.ALBUM, "앨범");
+            tag.setField(FieldKey.LYRICS, "가사 첫 줄\n가사 둘째 줄\n".repeat(40));
+            af.commit();
+            tracks[i] = p;
+        }
+        index = new MetadataIndex(dir.resolve("bench.idx"));
+        for (Path p : tracks) index.getOrRead(p);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        try (Stream<Path> s = Files.walk(dir)) {
+            for (Path p : s.sorted(Comparator.reverseOrder()).collect(Collectors.toList())) Files.delete(p);
+        }
+    }
+
+    private Path nextTrack() {
+        Path p = tracks[next];
+        next = (next + 1) % TRACKS;
+        return p;
+    }
+
+    @Benchmark
+    public TrackMetadata singleParse() {
+        return TrackMetadata.read(nextTrack());
+    }
+
+    /** 예전 playAt: 가사용 한 번, 제목용 한 번 */
+    @Benchmark
+    public String legacyDoubleParse() throws Exception {
+        Path p = nextTrack();
+        Tag lyricsTag = AudioFileIO.read(p.toFile()).getTag();
+        String lyrics = lyricsTag.getFirst(FieldKey.LYRICS);
+        Tag titleTag = AudioFileIO.read(p.toFile()).getTag();
+        return titleTag.getFirst(FieldKey.ARTIST) + " - " + titleTag.getFirst(FieldKey.TITLE) + lyrics.length();
+    }
+
+    @Benchmark
+    public MetadataIndex.Entry indexHit() {
+        return index.getOrRead(nextTrack());
+    }
+
+    // MPEG-1 Layer III 128kbps 44.1kHz 무음 프레임
+    static void writeSilentMp3(Path p, int frames) throws IOException {
+        byte[] frame = new byte[417];
+        frame[0] = (byte) 0xFF;
+        frame[1] = (byte) 0xFB;
+        frame[2] = (byte) 0x90;
+        frame[3] = (byte) 0xC4;
+        try (OutputStream out = Files.newOutputStream(p)) {
+            for (int i = 0; i < frames; i++) out.write(frame);
+        }
+    }
+}
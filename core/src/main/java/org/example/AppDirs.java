@@ -0,0 +1,33 @@
+package org.example;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+/** 사용자별 설정/캐시 파일을 두는 디렉터리(OS별 관례를 따름). */
+final class AppDirs {
+
+    private static final String APP = "mp3player";
+
+    private AppDirs() {}
+
+    static Path configDir() {
+        String os = System.getProperty("os.name", "").toLowerCase();
+        String home = System.getProperty("user.home");
+        Path dir;
+        if (os.contains("win")) {
+            String appData = System.getenv("APPDATA");
+            dir = Paths.get(appData != null ? appData : home, APP);
+        } else if (os.contains("mac")) {
+            dir = Paths.get(home, "Library", "Application Support", APP);
+        } else {
+            String xdg = System.getenv("XDG_CONFIG_HOME");
+            dir = (xdg != null && !xdg.isBlank()) ? Paths.get(xdg, APP) : Paths.get(home, ".config", APP);
+        }
+        try {
+            Files.createDirectories(dir);
+        } catch (IOException ignored) {}
+        return dir;
+    }
+}
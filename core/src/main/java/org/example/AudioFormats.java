@@ -0,0 +1,219 @@
+package org.example;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Predicate;
+
+/**
+ * 오디오 컨테이너 형식 등록부. 확장자나 태그 파싱에 기대지 않고 파일 앞부분 몇 바이트로
+ * 실제 형식을 알아낸다. JavaFX Media가 재생할 수 있는 형식인지도 함께 들고 있어서,
+ * 재생할 수 없는 파일은 Media를 만들기 전에 걸러진다.
+ * 새 형식은 {@link #register}로 추가한다(먼저 등록한 형식부터 검사).
+ */
+final class AudioFormats {
+
+    /** 한 번에 읽는 머리 크기. ID3v2 태그 뒤의 첫 프레임은 따로 한 번 더 읽는다. */
+    static final int PROBE_BYTES = 64;
+    /** 머리 시그니처가 없는 MPEG 오디오는 태그 뒤 이만큼 안에서 연속된 프레임 두 개를 찾는다. */
+    static final int MPEG_SCAN_BYTES = 64 * 1024;
+
+    static final class Format {
+        final String name;
+        final Set<String> extensions;   // 소문자, 점 없이
+        final boolean playable;         // JavaFX Media 지원 여부
+        final int window;               // 시그니처 검사에 필요한 머리 크기
+        private final Predicate<ByteBuffer> signature;
+
+        Format(String name, Set<String> extensions, boolean playable, Predicate<ByteBuffer> signature) {
+            this(name, extensions, playable, PROBE_BYTES, signature);
+        }
+
+        Format(String name, Set<String> extensions, boolean playable, int window, Predicate<ByteBuffer> signature) {
+            this.name = name;
+            this.extensions = extensions;
+            this.playable = playable;
+            this.window = window;
+            this.signature = signature;
+        }
+
+        @Override
+        public String toString() {
+            return name;
+        }
+    }
+
+    static final Format MP3 = new Format("MP3", Set.of("mp3"), true, MPEG_SCAN_BYTES, AudioFormats::isMpegAudio);
+    static final Format MP4 = new Format("MP4", Set.of("m4a", "mp4"), true,
+            b -> ascii(b, 4, "ftyp"));
+    static final Format WAV = new Format("WAV", Set.of("wav"), true,
+            b -> ascii(b, 0, "RIFF") && ascii(b, 8, "WAVE"));
+    static final Format AIFF = new Format("AIFF", Set.of("aif", "aiff"), true,
+            b -> ascii(b, 0, "FORM") && ascii(b, 8, "AIFF"));
+    // 압축 AIFF와 아래 형식들은 JavaFX Media가 재생하지 못한다
+    static final Format AIFC = new Format("AIFF-C", Set.of("aifc"), false,
+            b -> ascii(b, 0, "FORM") && ascii(b, 8, "AIFC"));
+    static final Format FLAC = new Format("FLAC", Set.of("flac"), false, b -> ascii(b, 0, "fLaC"));
+    static final Format OGG = new Format("Ogg", Set.of("ogg", "oga", "opus"), false, b -> ascii(b, 0, "OggS"));
+    static final Format ADTS = new Format("AAC(ADTS)", Set.of("aac"), false, AudioFormats::isAdts);
+
+    private static final List<Format> REGISTRY = new CopyOnWriteArrayList<>(
+            List.of(MP4, WAV, AIFF, AIFC, FLAC, OGG, MP3, ADTS));
+
+    private AudioFormats() {}
+
+    static void register(Format format) {
+        REGISTRY.add(0, format);
+    }
+
+    static Format byName(String name) {
+        for (Format f : REGISTRY) if (f.name.equals(name)) return f;
+        return null;
+    }
+
+    /** 스캐너/감시자용: 등록된 형식의 확장자인지(내용은 보지 않음). */
+    static boolean hasAudioExtension(Path p) {
+        String ext = extensionOf(p);
+        if (ext.isEmpty()) return false;
+        for (Format f : REGISTRY) if (f.extensions.contains(ext)) return true;
+        return false;
+    }
+
+    /**
+     * JavaFX가 이 파일을 재생할 수 있는지. Media는 확장자로 디먹서를 고르므로
+     * 재생 가능한 형식이어도 확장자가 다른 형식이면(이름만 바꾼 파일) 재생할 수 없다.
+     */
+    static boolean isPlayable(Path track, Format format) {
+        if (format == null) return false;
+        return format.playable && format.extensions.contains(extensionOf(track));
+    }
+
+    /** 아직 머리 바이트를 보지 않은 파일: 확장자가 재생 가능한 형식의 것인지. */
+    static boolean hasPlayableExtension(Path track) {
+        String ext = extensionOf(track);
+        for (Format f : REGISTRY) if (f.playable && f.extensions.contains(ext)) return true;
+        return false;
+    }
+
+    /**
+     * 머리 바이트로 형식을 판별한다. 알 수 없거나 읽지 못하면 null.
+     * 보통은 PROBE_BYTES만 읽고, 더 넓은 창이 필요한 형식(MPEG 오디오)에 이르렀을 때만 더 읽는다.
+     */
+    static Format probe(Path track) {
+        try (FileChannel ch = FileChannel.open(track, StandardOpenOption.READ)) {
+            ByteBuffer head = ByteBuffer.allocate(PROBE_BYTES);
+            readFully(ch, head, 0);
+            // ID3v2 태그가 앞에 붙은 파일은 태그를 건너뛴 위치에서 다시 본다
+            long skip = id3v2Size(head);
+            if (skip > 0) {
+                head.clear();
+                readFully(ch, head, skip);
+            }
+            boolean eof = head.limit() < head.capacity();
+            for (Format f : REGISTRY) {
+                if (f.window > head.capacity() && !eof) {
+                    head = ByteBuffer.allocate(f.window);
+                    readFully(ch, head, skip);
+                    eof = head.limit() < head.capacity();
+                }
+                if (f.signature.test(head)) return f;
+            }
+            return null;
+        } catch (IOException ex) {
+            return null;
+        }
+    }
+
+    private static void readFully(FileChannel ch, ByteBuffer buf, long pos) throws IOException {
+        while (buf.hasRemaining()) {
+            int n = ch.read(buf, pos + buf.position());
+            if (n < 0) break;
+        }
+        buf.flip();
+    }
+
+    // "ID3" + ver(2) + flags + synchsafe size(4). 푸터가 있으면 10바이트 더.
+    static long id3v2Size(ByteBuffer b) {
+        if (b.remaining() < 10 || !ascii(b, 0, "ID3")) return 0;
+        long size = 0;
+        for (int i = 6; i < 10; i++) size = (size << 7) | (b.get(i) & 0x7F);
+        boolean footer = (b.get(5) & 0x10) != 0;
+        return 10 + size + (footer ? 10 : 0);
+    }
+
+    private static boolean ascii(ByteBuffer b, int at, String s) {
+        if (b.limit() < at + s.length()) return false;
+        for (int i = 0; i < s.length(); i++) {
+            if (b.get(at + i) != (byte) s.charAt(i)) return false;
+        }
+        return true;
+    }
+
+    // kbps. [MPEG-1 레이어 I, II, III, MPEG-2/2.5 레이어 I, II/III][비트레이트 인덱스 1..14]
+    private static final int[][] MPEG_KBPS = {
+            {32, 64, 96, 128, 160, 192, 224, 256, 288, 320, 352, 384, 416, 448},
+            {32, 48, 56, 64, 80, 96, 112, 128, 160, 192, 224, 256, 320, 384},
+            {32, 40, 48, 56, 64, 80, 96, 112, 128, 160, 192, 224, 256, 320},
+            {32, 48, 56, 64, 80, 96, 112, 128, 144, 160, 176, 192, 224, 256},
+            {8, 16, 24, 32, 40, 48, 56, 64, 80, 96, 112, 128, 144, 160},
+    };
+    private static final int[] MPEG1_HZ = {44_100, 48_000, 32_000};
+
+    /**
+     * 창 안 어딘가에서 프레임 헤더를 찾고, 계산한 프레임 길이만큼 뒤에 같은 버전/레이어/표본율의
+     * 헤더가 또 있으면 MPEG 오디오로 본다. 헤더 하나만 보면 0xFFE 동기 비트가 우연히 맞은
+     * 다른 파일까지 MP3로 잡히기 때문이다.
+     */
+    private static boolean isMpegAudio(ByteBuffer b) {
+        int limit = b.limit();
+        for (int i = 0; i + 4 <= limit; i++) {
+            if ((b.get(i) & 0xFF) != 0xFF) continue;
+            int len = mpegFrameLength(b, i);
+            if (len <= 0) continue;
+            int next = i + len;
+            if (mpegFrameLength(b, next) > 0
+                    && (b.get(next + 1) & 0xFE) == (b.get(i + 1) & 0xFE)
+                    && (b.get(next + 2) & 0x0C) == (b.get(i + 2) & 0x0C)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    // at 위치의 MPEG 오디오 프레임 헤더가 유효하면 프레임 길이(바이트), 아니면 0. 자유 비트레이트는 길이를 모르므로 0.
+    private static int mpegFrameLength(ByteBuffer b, int at) {
+        if (at + 4 > b.limit()) return 0;
+        int b1 = b.get(at) & 0xFF, b2 = b.get(at + 1) & 0xFF, b3 = b.get(at + 2) & 0xFF;
+        if (b1 != 0xFF || (b2 & 0xE0) != 0xE0) return 0;
+        int version = (b2 >> 3) & 3;    // 3: MPEG-1, 2: MPEG-2, 0: MPEG-2.5
+        int layer = (b2 >> 1) & 3;      // 3: I, 2: II, 1: III
+        int rateIndex = b3 >> 4;
+        int hzIndex = (b3 >> 2) & 3;
+        if (version == 1 || layer == 0 || rateIndex == 0 || rateIndex == 15 || hzIndex == 3) return 0;
+        boolean mpeg1 = version == 3;
+        int table = mpeg1 ? 3 - layer : (layer == 3 ? 3 : 4);
+        int bps = MPEG_KBPS[table][rateIndex - 1] * 1000;
+        int hz = MPEG1_HZ[hzIndex] >> (mpeg1 ? 0 : version == 2 ? 1 : 2);
+        int padding = (b3 >> 1) & 1;
+        if (layer == 3) return (12 * bps / hz + padding) * 4;
+        return (layer == 1 && !mpeg1 ? 72 : 144) * bps / hz + padding;
+    }
+
+    // ADTS: 12비트 동기, 레이어 00
+    private static boolean isAdts(ByteBuffer b) {
+        if (b.limit() < 2) return false;
+        return (b.get(0) & 0xFF) == 0xFF && ((b.get(1) & 0xF6) == 0xF0);
+    }
+
+    static String extensionOf(Path p) {
+        String name = p.getFileName().toString();
+        int dot = name.lastIndexOf('.');
+        return dot > 0 ? name.substring(dot + 1).toLowerCase(Locale.ROOT) : "";
+    }
+}
@@ -0,0 +1,309 @@
+package org.example;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinWorkerThread;
+import java.util.concurrent.RecursiveAction;
+import java.util.function.BooleanSupplier;
+import java.util.function.IntConsumer;
+
+/**
+ * 태그만 다르고 오디오 내용이 같은 파일 찾기. 앞의 ID3v2와 끝의 ID3v1(TAG) 영역을 뺀 본문만 비교한다.
+ *
+ * 단계마다 후보를 줄여서 대부분의 파일은 끝까지 읽지 않는다.
+ * <ol>
+ *   <li>본문 길이: ID3v2 헤더 10바이트와 끝에서 128바이트 자리의 'TAG' 표시만 읽는다. 길이가 같은 파일이 없으면 여기서 끝.</li>
+ *   <li>부분 해시: 본문 앞뒤 PARTIAL_BYTES씩만 해시한다.</li>
+ *   <li>전체 해시: 앞의 두 단계가 모두 같은 파일만 본문 전체를 매핑해서 해시한다.</li>
+ * </ol>
+ * 본문 길이와 전체 해시는 {@link MetadataIndex}에 남겨 두므로 바뀌지 않은 파일은 다음부터 읽지 않는다.
+ * 각 단계는 낮은 우선순위 워커 풀에서 파일 단위로 병렬 처리한다.
+ *
+ * 파일은 매핑하지 않고 워커마다 재사용하는 버퍼로 읽는다. 윈도우에서는 매핑이 남아 있는 파일을 지울 수 없어서,
+ * 결과로 보여 준 중복 파일을 바로 지우려 하면 '사용 중' 오류가 나기 때문이다.
+ */
+final class DuplicateFinder {
+
+    interface ResultSink {
+        /** 워커 스레드에서 호출. 묶음마다 입력 목록의 위치(2개 이상, 오름차순), 묶음은 첫 위치 순. */
+        void onDone(List<int[]> groups, boolean cancelled);
+    }
+
+    static final int PARTIAL_BYTES = 64 * 1024;
+    private static final int ID3V1_BYTES = 128;
+    private static final int READ_CHUNK = 1 << 20;
+    private static final int LEAF = 32;
+
+    private final MetadataIndex index;
+    private final ForkJoinPool pool;
+    // 워커마다 하나씩: 부분 해시는 PARTIAL_BYTES, 전체 해시는 READ_CHUNK씩
+    private static final ThreadLocal<ByteBuffer> BUFFER =
+            ThreadLocal.withInitial(() -> ByteBuffer.allocate(Math.max(PARTIAL_BYTES, READ_CHUNK)));
+
+    DuplicateFinder(MetadataIndex index) {
+        this(index, Math.max(2, Runtime.getRuntime().availableProcessors() / 2));
+    }
+
+    DuplicateFinder(MetadataIndex index, int parallelism) {
+        this.index = index;
+        this.pool = new ForkJoinPool(parallelism, p -> {
+            ForkJoinWorkerThread t = ForkJoinPool.defaultForkJoinWorkerThreadFactory.newThread(p);
+            t.setName("duplicates-" + t.getPoolIndex());
+            t.setDaemon(true);
+            t.setPriority(Thread.NORM_PRIORITY - 1);
+            return t;
+        }, null, false);
+    }
+
+    /** 백그라운드로 찾기 시작하고 바로 돌아온다. */
+    void find(List<Path> tracks, ResultSink sink, BooleanSupplier cancelled) {
+        pool.execute(() -> {
+            List<int[]> groups = List.of();
+            try {
+                groups = findNow(tracks, cancelled);
+            } finally {
+                sink.onDone(groups, cancelled.getAsBoolean());
+            }
+        });
+    }
+
+    void shutdown() {
+        pool.shutdownNow();
+    }
+
+    private List<int[]> findNow(List<Path> tracks, BooleanSupplier cancelled) {
+        int n = tracks.size();
+        MetadataIndex.Entry[] entries = new MetadataIndex.Entry[n];
+        long[] start = new long[n];
+        long[] length = new long[n];
+
+        // 1) 본문 길이: 인덱스에 있으면 파일을 열지 않는다(시작 위치는 후보가 됐을 때 구한다)
+        forEach(all(n), i -> {
+            Path p = tracks.get(i);
+            start[i] = -1;
+            length[i] = -1;
+            MetadataIndex.Entry e = index.getOrRead(p);
+            if (e == null) return;
+            if (e.audioBytes < 0) {
+                long[] range = audioRange(p);
+                if (range == null) return;
+                start[i] = range[0];
+                index.setAudio(p, e, range[1], 0);
+                e = e.withAudio(range[1], 0);
+            }
+            entries[i] = e;
+            length[i] = e.audioBytes;
+        }, cancelled);
+        if (cancelled.getAsBoolean()) return List.of();
+        List<int[]> candidates = groupBy(all(n), i -> length[i] > 0 ? length[i] : null);
+
+        // 2) 앞뒤 일부만 해시
+        long[] partial = new long[n];
+        forEach(flatten(candidates), i -> {
+            Path p = tracks.get(i);
+            if (start[i] < 0) {
+                long[] range = audioRange(p);
+                if (range == null || range[1] != length[i]) return;   // 그사이 바뀐 파일
+                start[i] = range[0];
+            }
+            partial[i] = hashPartial(p, start[i], length[i]);
+        }, cancelled);
+        if (cancelled.getAsBoolean()) return List.of();
+        List<int[]> narrowed = new ArrayList<>();
+        for (int[] g : candidates) narrowed.addAll(groupBy(g, i -> partial[i] != 0 ? partial[i] : null));
+
+        // 3) 전체 해시(인덱스에 있으면 재사용)
+        long[] full = new long[n];
+        forEach(flatten(narrowed), i -> {
+            MetadataIndex.Entry e = entries[i];
+            if (e != null && e.audioHash != 0 && e.audioBytes == length[i]) {
+                full[i] = e.audioHash;
+                return;
+            }
+            Path p = tracks.get(i);
+            full[i] = hashRange(p, start[i], length[i]);
+            MetadataIndex.Entry cur = index.peek(p);
+            if (full[i] != 0 && cur != null && cur.audioBytes == length[i]) index.setAudio(p, cur, length[i], full[i]);
+        }, cancelled);
+        if (cancelled.getAsBoolean()) return List.of();
+        List<int[]> groups = new ArrayList<>();
+        for (int[] g : narrowed) groups.addAll(groupBy(g, i -> full[i] != 0 ? full[i] : null));
+        groups.sort((a, b) -> Integer.compare(a[0], b[0]));
+        return groups;
+    }
+
+    // ---- 본문 범위 ----
+
+    /** {시작, 길이}. 파일을 읽을 수 없으면 null. */
+    static long[] audioRange(Path track) {
+        try (FileChannel ch = FileChannel.open(track, StandardOpenOption.READ)) {
+            long size = ch.size();
+            ByteBuffer head = ByteBuffer.allocate(10);
+            readFully(ch, head, 0);
+            long begin = Math.min(size, AudioFormats.id3v2Size(head));
+            long end = size;
+            if (end - begin >= ID3V1_BYTES) {
+                ByteBuffer tail = ByteBuffer.allocate(3);
+                readFully(ch, tail, end - ID3V1_BYTES);
+                if (tail.remaining() == 3 && tail.get(0) == 'T' && tail.get(1) == 'A' && tail.get(2) == 'G') {
+                    end -= ID3V1_BYTES;
+                }
+            }
+            return new long[]{begin, end - begin};
+        } catch (IOException ex) {
+            return null;
+        }
+    }
+
+    private static void readFully(FileChannel ch, ByteBuffer buf, long pos) throws IOException {
+        while (buf.hasRemaining()) {
+            int n = ch.read(buf, pos + buf.position());
+            if (n < 0) break;
+        }
+        buf.flip();
+    }
+
+    // ---- 해시 ----
+
+    // 본문이 짧으면 전체를, 아니면 앞뒤 PARTIAL_BYTES씩
+    private static long hashPartial(Path track, long start, long length) {
+        if (length <= 2L * PARTIAL_BYTES) return hashRange(track, start, length);
+        try (FileChannel ch = FileChannel.open(track, StandardOpenOption.READ)) {
+            MessageDigest md = sha1();
+            ByteBuffer buf = BUFFER.get();
+            if (!digest(ch, md, buf, start, PARTIAL_BYTES)) return 0;
+            if (!digest(ch, md, buf, start + length - PARTIAL_BYTES, PARTIAL_BYTES)) return 0;
+            return toHash(md.digest());
+        } catch (IOException ex) {
+            return 0;
+        }
+    }
+
+    private static long hashRange(Path track, long start, long length) {
+        try (FileChannel ch = FileChannel.open(track, StandardOpenOption.READ)) {
+            MessageDigest md = sha1();
+            ByteBuffer buf = BUFFER.get();
+            for (long off = 0; off < length; off += READ_CHUNK) {
+                if (!digest(ch, md, buf, start + off, (int) Math.min(READ_CHUNK, length - off))) return 0;
+            }
+            return toHash(md.digest());
+        } catch (IOException ex) {
+            return 0;
+        }
+    }
+
+    // [pos, pos + len)을 buf로 읽어 해시에 넣는다. 파일이 그사이 짧아졌으면 false.
+    private static boolean digest(FileChannel ch, MessageDigest md, ByteBuffer buf, long pos, int len)
+            throws IOException {
+        buf.clear().limit(len);
+        readFully(ch, buf, pos);
+        if (buf.remaining() != len) return false;
+        md.update(buf);
+        return true;
+    }
+
+    private static MessageDigest sha1() {
+        try {
+            return MessageDigest.getInstance("SHA-1");
+        } catch (NoSuchAlgorithmException ex) {
+            throw new IllegalStateException(ex);
+        }
+    }
+
+    // 앞 8바이트, 0은 '모름'으로 쓰므로 피한다
+    private static long toHash(byte[] digest) {
+        long h = 0;
+        for (int i = 0; i < 8; i++) h = (h << 8) | (digest[i] & 0xFF);
+        return h != 0 ? h : 1;
+    }
+
+    // ---- 묶기/병렬 처리 ----
+
+    private interface Key {
+        /** null이면 어느 묶음에도 넣지 않는다 */
+        Long of(int i);
+    }
+
+    private static final class Bucket {
+        int[] items = new int[2];
+        int size;
+    }
+
+    // 같은 키가 2개 이상인 묶음만. 묶음 안은 입력 순서 그대로.
+    private static List<int[]> groupBy(int[] items, Key key) {
+        Map<Long, Bucket> byKey = new HashMap<>();
+        for (int i : items) {
+            Long k = key.of(i);
+            if (k == null) continue;
+            Bucket b = byKey.computeIfAbsent(k, x -> new Bucket());
+            if (b.size == b.items.length) b.items = Arrays.copyOf(b.items, b.size * 2);
+            b.items[b.size++] = i;
+        }
+        List<int[]> out = new ArrayList<>();
+        for (Bucket b : byKey.values()) {
+            if (b.size >= 2) out.add(Arrays.copyOf(b.items, b.size));
+        }
+        return out;
+    }
+
+    private static int[] all(int n) {
+        int[] a = new int[n];
+        for (int i = 0; i < n; i++) a[i] = i;
+        return a;
+    }
+
+    private static int[] flatten(List<int[]> groups) {
+        int total = 0;
+        for (int[] g : groups) total += g.length;
+        int[] out = new int[total];
+        int k = 0;
+        for (int[] g : groups) {
+            System.arraycopy(g, 0, out, k, g.length);
+            k += g.length;
+        }
+        return out;
+    }
+
+    private void forEach(int[] items, IntConsumer work, BooleanSupplier cancelled) {
+        if (items.length > 0) pool.invoke(new Each(items, 0, items.length, work, cancelled));
+    }
+
+    private static final class Each extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final int[] items;
+        private final int from, to;
+        private final IntConsumer work;
+        private final BooleanSupplier cancelled;
+
+        Each(int[] items, int from, int to, IntConsumer work, BooleanSupplier cancelled) {
+            this.items = items;
+            this.from = from;
+            this.to = to;
+            this.work = work;
+            this.cancelled = cancelled;
+        }
+
+        @Override
+        protected void compute() {
+            if (cancelled.getAsBoolean()) return;
+            if (to - from <= LEAF) {
+                for (int k = from; k < to && !cancelled.getAsBoolean(); k++) work.accept(items[k]);
+                return;
+            }
+            int mid = (from + to) >>> 1;
+            invokeAll(new Each(items, from, mid, work, cancelled), new Each(items, mid, to, work, cancelled));
+        }
+    }
+}
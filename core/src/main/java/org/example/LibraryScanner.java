@@ -0,0 +1,182 @@
+package org.example;
+
+import java.io.IOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.LinkOption;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Predicate;
+
+/**
+ * 폴더 트리를 워커 스레드에서 하위 폴더 단위로 병렬 탐색하고,
+ * 찾은 파일을 작은 배치로 나눠 {@link Listener}에 흘려보내는 스캐너.
+ * 콜백은 워커 스레드에서 호출되므로 UI 반영은 호출 측이 책임진다.
+ */
+final class LibraryScanner {
+
+    interface Listener {
+        /** 정렬된 새 배치. 첫 파일은 발견 즉시 단독 배치로 전달된다. */
+        void onBatch(List<Path> batch, long filesFound, long dirsVisited);
+        void onDone(boolean cancelled, long filesFound);
+        default void onError(Path dir, IOException ex) {}
+    }
+
+    /** 진행 중인 스캔 핸들. cancel() 후에는 더 이상 배치가 오지 않는다. */
+    static final class Scan {
+        private final AtomicBoolean cancelled = new AtomicBoolean();
+        private final AtomicLong files = new AtomicLong();
+        private final AtomicLong dirs = new AtomicLong();
+
+        void cancel() { cancelled.set(true); }
+        boolean isCancelled() { return cancelled.get(); }
+        long filesFound() { return files.get(); }
+    }
+
+    static final int BATCH_SIZE = 256;
+    private static final long FLUSH_INTERVAL_NANOS = 150_000_000L;
+
+    // 네트워크 드라이브는 I/O 대기가 길어서 코어 수보다 넉넉하게 둔다.
+    private final ForkJoinPool pool = new ForkJoinPool(
+            Math.max(4, Runtime.getRuntime().availableProcessors() * 2),
+            p -> {
+                var t = ForkJoinPool.defaultForkJoinWorkerThreadFactory.newThread(p);
+                t.setName("library-scan-" + t.getPoolIndex());
+                t.setDaemon(true);
+                return t;
+            }, null, false);
+
+    private final Predicate<Path> fileFilter;
+
+    LibraryScanner(Predicate<Path> fileFilter) {
+        this.fileFilter = fileFilter;
+    }
+
+    Scan scan(Path root, Listener listener) {
+        Scan scan = new Scan();
+        Sink sink = new Sink(scan, listener);
+        pool.execute(() -> {
+            PlayerEvents.LibraryScan event = new PlayerEvents.LibraryScan();
+            event.begin();
+            long t0 = System.nanoTime();
+            try {
+                pool.invoke(new DirTask(root, scan, sink));
+            } finally {
+                sink.flush(true);
+                Metrics.scanFinished(scan.files.get(), System.nanoTime() - t0);
+                event.root = root.toString();
+                event.files = scan.files.get();
+                event.directories = scan.dirs.get();
+                event.cancelled = scan.isCancelled();
+                event.commit();
+                listener.onDone(scan.isCancelled(), scan.files.get());
+            }
+        });
+        return scan;
+    }
+
+    void shutdown() {
+        pool.shutdownNow();
+    }
+
+    // 여러 워커가 채우는 공용 버퍼. 크기나 시간 조건을 넘으면 한 번에 내보낸다.
+    private static final class Sink {
+        private final Scan scan;
+        private final Listener listener;
+        private List<Path> buffer = new ArrayList<>();
+        private long lastFlush = System.nanoTime();
+        private boolean firstSent;
+
+        Sink(Scan scan, Listener listener) {
+            this.scan = scan;
+            this.listener = listener;
+        }
+
+        void add(Path p) {
+            List<Path> out = null;
+            synchronized (this) {
+                buffer.add(p);
+                long now = System.nanoTime();
+                if (!firstSent || buffer.size() >= BATCH_SIZE || now - lastFlush >= FLUSH_INTERVAL_NANOS) {
+                    firstSent = true;
+                    out = take(now);
+                }
+            }
+            if (out != null) emit(out);
+        }
+
+        void flush(boolean force) {
+            List<Path> out;
+            synchronized (this) {
+                long now = System.nanoTime();
+                if (buffer.isEmpty() || (!force && now - lastFlush < FLUSH_INTERVAL_NANOS)) return;
+                out = take(now);
+            }
+            emit(out);
+        }
+
+        private List<Path> take(long now) {
+            List<Path> out = buffer;
+            buffer = new ArrayList<>();
+            lastFlush = now;
+            return out;
+        }
+
+        private void emit(List<Path> out) {
+            if (scan.isCancelled()) return;
+            Collections.sort(out);
+            listener.onBatch(out, scan.files.get(), scan.dirs.get());
+        }
+    }
+
+    private final class DirTask extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final Path dir;
+        private final Scan scan;
+        private final Sink sink;
+
+        DirTask(Path dir, Scan scan, Sink sink) {
+            this.dir = dir;
+            this.scan = scan;
+            this.sink = sink;
+        }
+
+        @Override
+        protected void compute() {
+            if (scan.isCancelled()) return;
+            scan.dirs.incrementAndGet();
+            List<DirTask> children = new ArrayList<>();
+            try (DirectoryStream<Path> ds = Files.newDirectoryStream(dir)) {
+                for (Path p : ds) {
+                    if (scan.isCancelled()) return;
+                    BasicFileAttributes attrs;
+                    try {
+                        attrs = Files.readAttributes(p, BasicFileAttributes.class, LinkOption.NOFOLLOW_LINKS);
+                    } catch (IOException ex) {
+                        continue;
+                    }
+                    if (attrs.isDirectory()) {
+                        DirTask child = new DirTask(p, scan, sink);
+                        child.fork();
+                        children.add(child);
+                    } else if (attrs.isRegularFile() && fileFilter.test(p)) {
+                        scan.files.incrementAndGet();
+                        sink.add(p);
+                    }
+                }
+            } catch (IOException ex) {
+                sink.listener.onError(dir, ex);
+            }
+            for (DirTask child : children) child.join();
+            sink.flush(false);
+        }
+    }
+}
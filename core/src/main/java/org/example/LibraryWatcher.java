@@ -0,0 +1,201 @@
+package org.example;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.FileSystems;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.LinkOption;
+import java.nio.file.Path;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Predicate;
+
+/**
+ * 선택한 루트 폴더를 하위 폴더까지 WatchService에 등록해 두고,
+ * 추가/삭제/변경을 모아(debounce) 한 번에 {@link Listener}로 넘긴다.
+ * 대량 복사처럼 이벤트가 몰려도 조용해질 때까지 기다렸다가 묶어서 보낸다.
+ * 콜백은 감시 스레드에서 호출된다.
+ *
+ * 첫 콜백은 등록하며 훑은 전체 파일 목록(resync)이다. 폴더는 목록을 읽기 전에 등록하므로
+ * 그 뒤의 변화는 모두 이벤트로 오고, 목록과 이벤트 사이에 놓치는 구간이 없다.
+ */
+final class LibraryWatcher implements Closeable {
+
+    static final class Changes {
+        final List<Path> added;
+        /** 삭제된 파일 또는 폴더 경로. 폴더면 그 아래 전부가 사라진 것. */
+        final List<Path> removed;
+        final List<Path> modified;
+        /** 감시를 시작하며 훑었거나 이벤트가 넘쳐(OVERFLOW) 다시 훑은 경우: added가 현재 전체 목록이다. */
+        final boolean resync;
+
+        Changes(List<Path> added, List<Path> removed, List<Path> modified, boolean resync) {
+            this.added = added;
+            this.removed = removed;
+            this.modified = modified;
+            this.resync = resync;
+        }
+    }
+
+    interface Listener {
+        void onChanges(Changes changes);
+    }
+
+    private static final long QUIET_MS = 400;
+    private static final long MAX_DELAY_MS = 3000;
+
+    private final Path root;
+    private final Predicate<Path> fileFilter;
+    private final Listener listener;
+    private final WatchService ws;
+    private final Map<WatchKey, Path> keys = new HashMap<>();
+    private final Thread thread;
+
+    private final Set<Path> added = new LinkedHashSet<>();
+    private final Set<Path> removed = new LinkedHashSet<>();
+    private final Set<Path> modified = new LinkedHashSet<>();
+    private boolean overflow;
+    private long firstPendingAt;
+
+    LibraryWatcher(Path root, Predicate<Path> fileFilter, Listener listener) throws IOException {
+        this.root = root;
+        this.fileFilter = fileFilter;
+        this.listener = listener;
+        this.ws = FileSystems.getDefault().newWatchService();
+        this.thread = new Thread(this::run, "library-watch");
+        this.thread.setDaemon(true);
+    }
+
+    void start() {
+        thread.start();
+    }
+
+    @Override
+    public void close() {
+        thread.interrupt();
+        try {
+            ws.close();
+        } catch (IOException ignored) {}
+    }
+
+    private void run() {
+        try {
+            List<Path> initial = new ArrayList<>();
+            registerTree(root, initial);
+            if (Thread.currentThread().isInterrupted()) return;
+            initial.sort(null);
+            listener.onChanges(new Changes(initial, List.of(), List.of(), true));
+            while (!Thread.currentThread().isInterrupted()) {
+                WatchKey key = hasPending()
+                        ? ws.poll(QUIET_MS, TimeUnit.MILLISECONDS)
+                        : ws.take();
+                if (key == null) {
+                    flush();
+                    continue;
+                }
+                Path dir = keys.get(key);
+                for (WatchEvent<?> ev : key.pollEvents()) {
+                    if (ev.kind() == StandardWatchEventKinds.OVERFLOW) {
+                        overflow = true;
+                        continue;
+                    }
+                    if (dir == null) continue;
+                    onEvent(ev.kind(), dir.resolve((Path) ev.context()));
+                }
+                if (!key.reset()) keys.remove(key);
+                if (hasPending() && System.currentTimeMillis() - firstPendingAt >= MAX_DELAY_MS) flush();
+            }
+        } catch (InterruptedException | ClosedWatchServiceException ex) {
+            // 종료
+        }
+    }
+
+    private void onEvent(WatchEvent.Kind<?> kind, Path child) {
+        if (!hasPending()) firstPendingAt = System.currentTimeMillis();
+        if (kind == StandardWatchEventKinds.ENTRY_CREATE) {
+            if (Files.isDirectory(child, LinkOption.NOFOLLOW_LINKS)) {
+                // 새 폴더: 등록하면서 이미 들어와 있는 파일도 추가로 잡는다
+                registerTree(child, added);
+            } else if (fileFilter.test(child)) {
+                removed.remove(child);
+                added.add(child);
+            }
+        } else if (kind == StandardWatchEventKinds.ENTRY_DELETE) {
+            added.remove(child);
+            modified.remove(child);
+            removed.add(child);
+        } else if (kind == StandardWatchEventKinds.ENTRY_MODIFY) {
+            if (fileFilter.test(child) && !added.contains(child)
+                    && Files.isRegularFile(child, LinkOption.NOFOLLOW_LINKS)) {
+                modified.add(child);
+            }
+        }
+    }
+
+    private boolean hasPending() {
+        return overflow || !added.isEmpty() || !removed.isEmpty() || !modified.isEmpty();
+    }
+
+    private void flush() {
+        if (!hasPending()) return;
+        Changes changes;
+        if (overflow) {
+            List<Path> all = new ArrayList<>();
+            registerTree(root, all);
+            changes = new Changes(all, List.of(), List.of(), true);
+        } else {
+            List<Path> a = new ArrayList<>(added);
+            a.sort(null);
+            changes = new Changes(a, new ArrayList<>(removed), new ArrayList<>(modified), false);
+        }
+        overflow = false;
+        added.clear();
+        removed.clear();
+        modified.clear();
+        listener.onChanges(changes);
+    }
+
+    // 폴더 트리를 등록한다. files가 주어지면 만나는 대상 파일도 모은다.
+    private void registerTree(Path start, Collection<Path> files) {
+        try {
+            Files.walkFileTree(start, new SimpleFileVisitor<>() {
+                @Override
+                public FileVisitResult preVisitDirectory(Path dir, BasicFileAttributes attrs) {
+                    try {
+                        WatchKey key = dir.register(ws,
+                                StandardWatchEventKinds.ENTRY_CREATE,
+                                StandardWatchEventKinds.ENTRY_DELETE,
+                                StandardWatchEventKinds.ENTRY_MODIFY);
+                        keys.put(key, dir);
+                    } catch (IOException ignored) {}
+                    return FileVisitResult.CONTINUE;
+                }
+
+                @Override
+                public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) {
+                    if (files != null && attrs.isRegularFile() && fileFilter.test(file)) files.add(file);
+                    return FileVisitResult.CONTINUE;
+                }
+
+                @Override
+                public FileVisitResult visitFileFailed(Path file, IOException exc) {
+                    return FileVisitResult.CONTINUE;
+                }
+            });
+        } catch (IOException | ClosedWatchServiceException ignored) {}
+    }
+}
@@ -0,0 +1,298 @@
+package org.example;
+
+import javax.sound.sampled.AudioFormat;
+import javax.sound.sampled.AudioInputStream;
+import javax.sound.sampled.AudioSystem;
+import javax.sound.sampled.spi.AudioFileReader;
+import javax.sound.sampled.spi.FormatConversionProvider;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Locale;
+import java.util.ServiceConfigurationError;
+import java.util.ServiceLoader;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinWorkerThread;
+import java.util.concurrent.RecursiveAction;
+import java.util.function.BooleanSupplier;
+
+import org.jaudiotagger.tag.Tag;
+import org.jaudiotagger.tag.TagField;
+import org.jaudiotagger.tag.TagTextField;
+import org.jaudiotagger.tag.id3.AbstractID3v2Frame;
+import org.jaudiotagger.tag.id3.framebody.FrameBodyTXXX;
+
+/**
+ * 트랙별 음량 보정값(dB) 계산.
+ * 1) 태그에 ReplayGain(REPLAYGAIN_TRACK_GAIN)이 있으면 그 값을 쓰고
+ * 2) 없으면 디코딩한 PCM으로 ITU-R BS.1770 통합 라우드니스를 재서 -18 LUFS 기준 보정값을 낸다.
+ *
+ * PCM 디코딩은 javax.sound.sampled를 쓴다. JDK가 읽는 WAV/AIFF/AU에 더해 MP3는 함께 배포하는 mp3spi가 디코딩하고,
+ * 그 밖의 형식(FLAC, Ogg 등)은 해당 오디오 SPI가 클래스패스에 있을 때만 분석된다. 분석하지 못한 파일은 보정하지 않고,
+ * 그때의 디코더 구성({@link #decoderStamp})을 남겨 두었다가 구성이 바뀌면 다시 분석한다.
+ * 일괄 분석은 코어 수의 절반 이하, 낮은 우선순위 스레드에서 돌아 재생을 방해하지 않는다.
+ */
+final class LoudnessAnalyzer {
+
+    /** ReplayGain 2.0 기준 라우드니스 */
+    static final double REFERENCE_LUFS = -18.0;
+
+    interface ResultSink {
+        /** 워커 스레드에서 호출. 분석할 수 없는 파일은 NaN. */
+        void accept(Path track, float gainDb);
+    }
+
+    private final ForkJoinPool pool;
+
+    LoudnessAnalyzer() {
+        this(Math.max(1, (Runtime.getRuntime().availableProcessors() - 1) / 2));
+    }
+
+    LoudnessAnalyzer(int parallelism) {
+        this.pool = new ForkJoinPool(parallelism, p -> {
+            ForkJoinWorkerThread t = ForkJoinPool.defaultForkJoinWorkerThreadFactory.newThread(p);
+            t.setName("loudness-" + t.getPoolIndex());
+            t.setDaemon(true);
+            t.setPriority(Thread.MIN_PRIORITY);
+            return t;
+        }, null, false);
+    }
+
+    /** 백그라운드로 분석을 시작하고 바로 돌아온다. */
+    void analyzeAll(List<Path> tracks, ResultSink sink, BooleanSupplier cancelled) {
+        if (tracks.isEmpty()) return;
+        pool.execute(new Batch(tracks, 0, tracks.size(), sink, cancelled));
+    }
+
+    void shutdown() {
+        pool.shutdownNow();
+    }
+
+    /** 설치된 오디오 디코더(파일 리더, 포맷 변환) 구성을 나타내는 0이 아닌 값. 디코더 SPI가 추가/제거되면 바뀐다. */
+    static int decoderStamp() {
+        return DecoderStamp.VALUE;
+    }
+
+    private static final class DecoderStamp {
+        static final int VALUE = compute();
+
+        private static int compute() {
+            List<String> names = new ArrayList<>();
+            try {
+                for (AudioFileReader r : ServiceLoader.load(AudioFileReader.class)) names.add(r.getClass().getName());
+                for (FormatConversionProvider c : ServiceLoader.load(FormatConversionProvider.class)) {
+                    names.add(c.getClass().getName());
+                }
+            } catch (ServiceConfigurationError ignored) {}
+            names.sort(null);
+            int h = names.hashCode();
+            return h != 0 ? h : 1;
+        }
+    }
+
+    private static final class Batch extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final List<Path> tracks;
+        private final int from, to;
+        private final ResultSink sink;
+        private final BooleanSupplier cancelled;
+
+        Batch(List<Path> tracks, int from, int to, ResultSink sink, BooleanSupplier cancelled) {
+            this.tracks = tracks;
+            this.from = from;
+            this.to = to;
+            this.sink = sink;
+            this.cancelled = cancelled;
+        }
+
+        @Override
+        protected void compute() {
+            if (cancelled.getAsBoolean()) return;
+            if (to - from == 1) {
+                Path p = tracks.get(from);
+                double lufs = integratedLoudness(p);
+                sink.accept(p, Double.isNaN(lufs) ? Float.NaN : (float) (REFERENCE_LUFS - lufs));
+                return;
+            }
+            int mid = (from + to) >>> 1;
+            invokeAll(new Batch(tracks, from, mid, sink, cancelled),
+                      new Batch(tracks, mid, to, sink, cancelled));
+        }
+    }
+
+    // ---- ReplayGain 태그 ----
+
+    /** 태그의 트랙 게인(dB). 없으면 NaN. */
+    static float readReplayGain(Tag tag) {
+        try {
+            Iterator<TagField> it = tag.getFields();
+            while (it.hasNext()) {
+                TagField f = it.next();
+                if (f instanceof AbstractID3v2Frame) {
+                    Object body = ((AbstractID3v2Frame) f).getBody();
+                    if (body instanceof FrameBodyTXXX) {
+                        FrameBodyTXXX txxx = (FrameBodyTXXX) body;
+                        if ("replaygain_track_gain".equalsIgnoreCase(txxx.getDescription())) {
+                            return parseDb(txxx.getFirstTextValue());
+                        }
+                    }
+                } else if (f instanceof TagTextField) {
+                    // Vorbis/FLAC: REPLAYGAIN_TRACK_GAIN, MP4: ----:com.apple.iTunes:replaygain_track_gain
+                    String id = f.getId();
+                    if (id != null && id.toLowerCase(Locale.ROOT).endsWith("replaygain_track_gain")) {
+                        return parseDb(((TagTextField) f).getContent());
+                    }
+                }
+            }
+        } catch (Exception ignored) {}
+        return Float.NaN;
+    }
+
+    // "-6.54 dB" → -6.54
+    static float parseDb(String s) {
+        if (s == null) return Float.NaN;
+        s = s.trim();
+        int end = 0;
+        while (end < s.length() && "+-.0123456789".indexOf(s.charAt(end)) >= 0) end++;
+        try {
+            return Float.parseFloat(s.substring(0, end));
+        } catch (NumberFormatException ex) {
+            return Float.NaN;
+        }
+    }
+
+    // ---- BS.1770 통합 라우드니스 ----
+
+    /** 디코딩 가능한 파일의 통합 라우드니스(LUFS). 디코더가 없거나 무음이면 NaN. */
+    static double integratedLoudness(Path track) {
+        try (AudioInputStream src = AudioSystem.getAudioInputStream(track.toFile())) {
+            AudioFormat in = src.getFormat();
+            AudioFormat pcm = new AudioFormat(AudioFormat.Encoding.PCM_SIGNED,
+                    in.getSampleRate(), 16, in.getChannels(), in.getChannels() * 2, in.getSampleRate(), false);
+            try (AudioInputStream s = AudioSystem.getAudioInputStream(pcm, src)) {
+                return measure(s, pcm);
+            }
+        } catch (Exception ex) {
+            return Double.NaN;
+        }
+    }
+
+    private static double measure(AudioInputStream s, AudioFormat fmt) throws IOException {
+        int channels = fmt.getChannels();
+        double rate = fmt.getSampleRate();
+        if (channels <= 0 || rate <= 0) return Double.NaN;
+
+        KWeighting[] filters = new KWeighting[channels];
+        for (int c = 0; c < channels; c++) filters[c] = new KWeighting(rate);
+
+        int subBlock = (int) Math.round(rate / 10);      // 100ms
+        double[] subEnergy = new double[4];              // 최근 4개 = 400ms 블록
+        int subCount = 0;
+        int inSub = 0;
+        double acc = 0;
+
+        // 블록 에너지 목록(게이팅용)
+        double[] blocks = new double[1024];
+        int blockCount = 0;
+
+        byte[] buf = new byte[channels * 2 * 4096];
+        int n;
+        while ((n = s.read(buf)) > 0) {
+            int frames = n / (channels * 2);
+            for (int f = 0; f < frames; f++) {
+                int base = f * channels * 2;
+                for (int c = 0; c < channels; c++) {
+                    int lo = buf[base + c * 2] & 0xFF;
+                    int hi = buf[base + c * 2 + 1];
+                    double x = ((hi << 8) | lo) / 32768.0;
+                    double y = filters[c].process(x);
+                    acc += y * y;
+                }
+                if (++inSub == subBlock) {
+                    subEnergy[subCount % 4] = acc / subBlock;
+                    subCount++;
+                    acc = 0;
+                    inSub = 0;
+                    if (subCount >= 4) {
+                        double e = (subEnergy[0] + subEnergy[1] + subEnergy[2] + subEnergy[3]) / 4;
+                        if (blockCount == blocks.length) blocks = Arrays.copyOf(blocks, blockCount * 2);
+                        blocks[blockCount++] = e;
+                    }
+                }
+            }
+        }
+        return gate(blocks, blockCount);
+    }
+
+    private static double gate(double[] blocks, int count) {
+        double absGate = energyOf(-70.0);
+        double sum = 0;
+        int n = 0;
+        for (int i = 0; i < count; i++) {
+            if (blocks[i] > absGate) { sum += blocks[i]; n++; }
+        }
+        if (n == 0) return Double.NaN;
+        double relGate = energyOf(loudnessOf(sum / n) - 10.0);
+        sum = 0;
+        n = 0;
+        for (int i = 0; i < count; i++) {
+            if (blocks[i] > absGate && blocks[i] > relGate) { sum += blocks[i]; n++; }
+        }
+        return n == 0 ? Double.NaN : loudnessOf(sum / n);
+    }
+
+    private static double loudnessOf(double energy) {
+        return -0.691 + 10 * Math.log10(energy);
+    }
+
+    private static double energyOf(double lufs) {
+        return Math.pow(10, (lufs + 0.691) / 10);
+    }
+
+    /** K-가중 필터(고역 쉘빙 + 저역 차단) 2단 바이쿼드. 계수는 표본율에 맞춰 계산. */
+    private static final class KWeighting {
+        private final double b0, b1, b2, a1, a2;
+        private final double c0, c1, c2, d1, d2;
+        private double x1, x2, y1, y2;
+        private double u1, u2, z1, z2;
+
+        KWeighting(double rate) {
+            double f0 = 1681.974450955533;
+            double g = 3.999843853973347;
+            double q = 0.7071752369554196;
+            double k = Math.tan(Math.PI * f0 / rate);
+            double vh = Math.pow(10.0, g / 20.0);
+            double vb = Math.pow(vh, 0.4996667741545416);
+            double a0 = 1.0 + k / q + k * k;
+            b0 = (vh + vb * k / q + k * k) / a0;
+            b1 = 2.0 * (k * k - vh) / a0;
+            b2 = (vh - vb * k / q + k * k) / a0;
+            a1 = 2.0 * (k * k - 1.0) / a0;
+            a2 = (1.0 - k / q + k * k) / a0;
+
+            f0 = 38.13547087602444;
+            q = 0.5003270373238773;
+            k = Math.tan(Math.PI * f0 / rate);
+            double h0 = 1.0 + k / q + k * k;
+            c0 = 1.0;
+            c1 = -2.0;
+            c2 = 1.0;
+            d1 = 2.0 * (k * k - 1.0) / h0;
+            d2 = (1.0 - k / q + k * k) / h0;
+        }
+
+        double process(double x) {
+            double y = b0 * x + b1 * x1 + b2 * x2 - a1 * y1 - a2 * y2;
+            x2 = x1; x1 = x;
+            y2 = y1; y1 = y;
+            double z = c0 * y + c1 * u1 + c2 * u2 - d1 * z1 - d2 * z2;
+            u2 = u1; u1 = y;
+            z2 = z1; z1 = z;
+            return z;
+        }
+    }
+}
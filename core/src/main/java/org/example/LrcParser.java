@@ -0,0 +1,264 @@
+package org.example;
+
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * 정규식 없이 문자 단위로 읽는 스트리밍 LRC 파서.
+ *
+ * <ul>
+ *   <li>[mm:ss], [mm:ss.x], [mm:ss.xx], [mm:ss.xxx], [mm:ss:xx] 타임스탬프</li>
+ *   <li>한 줄의 여러 타임스탬프([00:12.00][01:30.00]후렴)는 타임스탬프마다 한 줄씩</li>
+ *   <li>[offset:+/-ms] 머리말을 모든 시각에 적용(양수면 가사가 앞당겨짐)</li>
+ *   <li>확장 LRC의 단어 단위 &lt;mm:ss.xx&gt; 태그는 본문에서 걷어냄</li>
+ * </ul>
+ *
+ * 줄마다 String을 만들지 않고 고정 버퍼 위에서 바로 해석하며, 가사 본문만 문자열로 만든다.
+ * 인스턴스는 스레드 안전하지 않다.
+ */
+final class LrcParser {
+
+    private static final int BUF_SIZE = 8192;
+    private static final Comparator<LyricLine> BY_TIME =
+            Comparator.comparingDouble(ll -> ll.timeSec < 0 ? Double.MAX_VALUE : ll.timeSec);
+
+    private char[] buf = new char[BUF_SIZE];
+    private long[] stamps = new long[8];
+    private int stampCount;
+    private final StringBuilder text = new StringBuilder(128);
+
+    private List<LyricLine> out;
+    private long[] outMillis;
+    private int offsetMs;
+    private boolean offsetOnly;
+
+    static List<LyricLine> parse(Path lrc) throws IOException {
+        PlayerEvents.LrcParse event = new PlayerEvents.LrcParse();
+        event.begin();
+        long t0 = System.nanoTime();
+        List<LyricLine> lines;
+        try (Reader r = new InputStreamReader(Files.newInputStream(lrc), StandardCharsets.UTF_8)) {
+            lines = new LrcParser().parse(r);
+        }
+        Metrics.LRC_PARSE.record(System.nanoTime() - t0, lrc);
+        event.end();
+        if (event.shouldCommit()) {
+            event.path = lrc.toString();
+            event.lines = lines.size();
+            event.commit();
+        }
+        return lines;
+    }
+
+    /** 가사 줄은 만들지 않고 파일 전체에서 [offset:] 값만 찾는다(없으면 0, 여러 개면 마지막 값). */
+    static int readOffsetMs(Path lrc) {
+        try (Reader r = new InputStreamReader(Files.newInputStream(lrc), StandardCharsets.UTF_8)) {
+            LrcParser p = new LrcParser();
+            p.offsetOnly = true;
+            p.run(r);
+            return p.offsetMs;
+        } catch (IOException ex) {
+            return 0;
+        }
+    }
+
+    List<LyricLine> parse(Reader in) throws IOException {
+        out = new ArrayList<>();
+        outMillis = new long[64];
+        offsetMs = 0;
+        offsetOnly = false;
+        run(in);
+
+        // 오프셋은 파일 어디에 있든 전체에 적용
+        List<LyricLine> lines = out;
+        if (offsetMs != 0) {
+            for (int i = 0; i < lines.size(); i++) {
+                LyricLine l = lines.get(i);
+                if (l.timeSec < 0) continue;
+                long ms = Math.max(0, outMillis[i] - offsetMs);
+                lines.set(i, new LyricLine(ms / 1000.0, l.text));
+            }
+        }
+        lines.sort(BY_TIME);
+        out = null;
+        outMillis = null;
+        return lines;
+    }
+
+    int offsetMs() {
+        return offsetMs;
+    }
+
+    // 버퍼를 채우며 줄 단위로 잘라 handleLine에 넘긴다. 줄이 버퍼보다 길면 버퍼를 키운다.
+    private void run(Reader in) throws IOException {
+        int len = 0;
+        boolean first = true;
+        while (true) {
+            int n = in.read(buf, len, buf.length - len);
+            if (n < 0) break;
+            len += n;
+            int start = 0;
+            if (first && len > 0) {
+                first = false;
+                if (buf[0] == '\uFEFF') start = 1;
+            }
+            int lineStart = start;
+            for (int i = start; i < len; i++) {
+                char c = buf[i];
+                if (c == '\n' || c == '\r') {
+                    handleLine(lineStart, i);
+                    lineStart = i + 1;
+                }
+            }
+            int rest = len - lineStart;
+            if (rest == buf.length) buf = Arrays.copyOf(buf, buf.length * 2);
+            else if (lineStart > 0) System.arraycopy(buf, lineStart, buf, 0, rest);
+            len = rest;
+        }
+        if (len > 0) handleLine(0, len);
+    }
+
+    private void handleLine(int from, int to) {
+        while (from < to && buf[from] <= ' ') from++;
+        while (to > from && buf[to - 1] <= ' ') to--;
+        if (from >= to) return;
+
+        stampCount = 0;
+        boolean metaOnly = false;
+        int i = from;
+        while (i < to && buf[i] == '[') {
+            int close = indexOf(']', i + 1, to);
+            if (close < 0) break;
+            long ms = parseTime(i + 1, close);
+            if (ms >= 0) {
+                if (offsetOnly) {
+                    i = close + 1;
+                    continue;
+                }
+                if (stampCount == stamps.length) stamps = Arrays.copyOf(stamps, stampCount * 2);
+                stamps[stampCount++] = ms;
+            } else if (isMetaTag(i + 1, close)) {
+                if (stampCount == 0) metaOnly = true;
+                if (regionEqualsIgnoreCase(i + 1, close, "offset:")) offsetMs = parseSignedInt(i + 8, close);
+            } else {
+                break; // [Chorus] 같은 일반 괄호는 본문으로
+            }
+            i = close + 1;
+        }
+        if (offsetOnly) return;
+        if (metaOnly && stampCount == 0) return;
+
+        String body = stripWordTags(i, to);
+        if (body.isEmpty()) return;
+        if (stampCount == 0) {
+            add(-1, body);
+        } else {
+            for (int k = 0; k < stampCount; k++) add(stamps[k], body);
+        }
+    }
+
+    private void add(long ms, String body) {
+        int idx = out.size();
+        if (idx == outMillis.length) outMillis = Arrays.copyOf(outMillis, idx * 2);
+        outMillis[idx] = ms;
+        out.add(new LyricLine(ms < 0 ? -1 : ms / 1000.0, body));
+    }
+
+    // mm:ss[.f{1,3}] 또는 mm:ss:ff. 형식이 아니면 -1.
+    private long parseTime(int from, int to) {
+        int i = from;
+        long min = 0;
+        int digits = 0;
+        while (i < to && isDigit(buf[i])) { min = min * 10 + (buf[i] - '0'); i++; digits++; }
+        if (digits == 0 || i >= to || buf[i] != ':') return -1;
+        i++;
+        long sec = 0;
+        digits = 0;
+        while (i < to && isDigit(buf[i])) { sec = sec * 10 + (buf[i] - '0'); i++; digits++; }
+        if (digits == 0 || digits > 2) return -1;
+        long frac = 0;
+        if (i < to) {
+            if (buf[i] != '.' && buf[i] != ':') return -1;
+            i++;
+            int fd = 0;
+            while (i < to && isDigit(buf[i]) && fd < 3) { frac = frac * 10 + (buf[i] - '0'); i++; fd++; }
+            if (fd == 0 || i != to) return -1;
+            if (fd == 1) frac *= 100;
+            else if (fd == 2) frac *= 10;
+        }
+        return (min * 60 + sec) * 1000 + frac;
+    }
+
+    // [ti:...], [offset:...] 처럼 영문 키 뒤에 콜론이 오는 머리말
+    private boolean isMetaTag(int from, int to) {
+        int i = from;
+        while (i < to && Character.isLetter(buf[i])) i++;
+        return i > from && i < to && buf[i] == ':';
+    }
+
+    // 확장 LRC의 <mm:ss.xx> 단어 태그를 빼고 본문만 남긴다
+    private String stripWordTags(int from, int to) {
+        int lt = indexOf('<', from, to);
+        if (lt < 0) return trimmed(from, to);
+        text.setLength(0);
+        int i = from;
+        while (i < to) {
+            char c = buf[i];
+            if (c == '<') {
+                int gt = indexOf('>', i + 1, to);
+                if (gt > 0 && parseTime(i + 1, gt) >= 0) {
+                    i = gt + 1;
+                    continue;
+                }
+            }
+            text.append(c);
+            i++;
+        }
+        int s = 0, e = text.length();
+        while (s < e && text.charAt(s) <= ' ') s++;
+        while (e > s && text.charAt(e - 1) <= ' ') e--;
+        return text.substring(s, e);
+    }
+
+    private String trimmed(int from, int to) {
+        while (from < to && buf[from] <= ' ') from++;
+        while (to > from && buf[to - 1] <= ' ') to--;
+        return new String(buf, from, to - from);
+    }
+
+    private int parseSignedInt(int from, int to) {
+        int i = from;
+        while (i < to && buf[i] == ' ') i++;
+        boolean neg = false;
+        if (i < to && (buf[i] == '+' || buf[i] == '-')) { neg = buf[i] == '-'; i++; }
+        long v = 0;
+        while (i < to && isDigit(buf[i]) && v < Integer.MAX_VALUE) { v = v * 10 + (buf[i] - '0'); i++; }
+        v = Math.min(v, Integer.MAX_VALUE);
+        return (int) (neg ? -v : v);
+    }
+
+    private boolean regionEqualsIgnoreCase(int from, int to, String s) {
+        if (to - from < s.length()) return false;
+        for (int k = 0; k < s.length(); k++) {
+            if (Character.toLowerCase(buf[from + k]) != s.charAt(k)) return false;
+        }
+        return true;
+    }
+
+    private int indexOf(char c, int from, int to) {
+        for (int i = from; i < to; i++) if (buf[i] == c) return i;
+        return -1;
+    }
+
+    private static boolean isDigit(char c) {
+        return c >= '0' && c <= '9';
+    }
+}
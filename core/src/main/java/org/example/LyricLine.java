@@ -0,0 +1,12 @@
+package org.example;
+
+/** 가사 한 줄. timeSec가 음수면 시간 정보가 없는 줄. */
+final class LyricLine {
+    final double timeSec;
+    final String text;
+
+    LyricLine(double timeSec, String text) {
+        this.timeSec = timeSec;
+        this.text = text;
+    }
+}
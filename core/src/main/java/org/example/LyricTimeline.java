@@ -0,0 +1,81 @@
+package org.example;
+
+import java.util.List;
+
+/**
+ * 싱크 가사의 시각을 정렬된 long[](ms)로 들고 있는 타임라인.
+ * 재생 중에는 커서를 한두 칸씩 앞으로 옮기기만 하고(O(1)),
+ * 사용자가 탐색하거나 크게 건너뛴 경우에만 이진 탐색으로 다시 찾는다.
+ * 인덱스 i는 입력 목록의 i번째 줄과 같다(시간 없는 줄은 뒤쪽에 있어 제외).
+ */
+final class LyricTimeline {
+
+    static final LyricTimeline EMPTY = new LyricTimeline(new long[0]);
+
+    // 이 이상 앞으로 건너뛰면 한 칸씩 옮기지 않고 이진 탐색
+    private static final int MAX_STEPS = 4;
+
+    private final long[] millis;
+    private int cursor = -1;
+
+    private LyricTimeline(long[] millis) {
+        this.millis = millis;
+    }
+
+    /** lines는 시간순 정렬, 시간 없는 줄은 뒤쪽이어야 한다(LrcParser 출력 형식). */
+    static LyricTimeline of(List<LyricLine> lines) {
+        int n = 0;
+        while (n < lines.size() && lines.get(n).timeSec >= 0) n++;
+        if (n == 0) return EMPTY;
+        long[] ms = new long[n];
+        for (int i = 0; i < n; i++) ms[i] = Math.round(lines.get(i).timeSec * 1000);
+        return new LyricTimeline(ms);
+    }
+
+    int size() {
+        return millis.length;
+    }
+
+    boolean isEmpty() {
+        return millis.length == 0;
+    }
+
+    /** 현재 커서(-1: 첫 줄 전). */
+    int cursor() {
+        return cursor;
+    }
+
+    /** 재생 시각이 조금 흐른 경우: 커서를 앞으로 밀고 현재 줄 인덱스를 돌려준다. */
+    int advance(long posMs) {
+        int n = millis.length;
+        if (n == 0) return -1;
+        if (cursor >= 0 && posMs < millis[cursor]) return seek(posMs);
+        int steps = 0;
+        while (cursor + 1 < n && millis[cursor + 1] <= posMs) {
+            if (++steps > MAX_STEPS) return seek(posMs);
+            cursor++;
+        }
+        return cursor;
+    }
+
+    /** 임의 위치로 이동: 이진 탐색으로 커서를 다시 잡는다. */
+    int seek(long posMs) {
+        cursor = indexAt(posMs);
+        return cursor;
+    }
+
+    /** posMs 이하인 마지막 줄의 인덱스, 첫 줄 이전이면 -1. */
+    int indexAt(long posMs) {
+        int lo = 0, hi = millis.length - 1, found = -1;
+        while (lo <= hi) {
+            int mid = (lo + hi) >>> 1;
+            if (millis[mid] <= posMs) {
+                found = mid;
+                lo = mid + 1;
+            } else {
+                hi = mid - 1;
+            }
+        }
+        return found;
+    }
+}
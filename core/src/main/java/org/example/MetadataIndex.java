@@ -0,0 +1,330 @@
+package org.example;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.LinkOption;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.LinkedHashSet;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 경로별 태그 메타데이터를 디스크에 보관하는 인덱스.
+ * 항목은 파일 크기와 수정 시각이 같을 때만 유효하며, 바뀐 파일만 다시 읽는다.
+ *
+ * 파일 형식: magic, version, count, 이후 항목마다
+ * path, size, mtime, title, artist, album, durationMs, flags, lyricsOffsetMs, trackGainDb, artHash, format,
+ * audioBytes, audioHash, lyricsWords, loudnessStamp.
+ * 이전 버전 파일도 읽고, 빠진 값은 다음에 태그를 읽을 때 채운다.
+ */
+final class MetadataIndex {
+
+    static final class Entry {
+        final long size;
+        final long mtime;
+        final String title;
+        final String artist;
+        final String album;
+        final int durationMs;
+        final boolean hasLyrics;
+        final int lyricsOffsetMs;
+        final float trackGainDb;      // 음량 보정값, 아직 모르거나 잴 수 없으면 NaN
+        final long artHash;           // 아트워크 내용 해시, 없으면 0, 모르면 ART_UNKNOWN
+        final String format;          // 머리 바이트로 판별한 형식 이름, 판별 못 하면 "", 아직 안 봤으면 null
+        final long audioBytes;        // 태그를 뺀 오디오 본문 길이, 모르면 -1
+        final long audioHash;         // 오디오 본문 내용 해시(중복 찾기), 모르면 0
+        final String lyricsWords;     // 가사(내장 또는 LRC)의 중복 없는 단어들(검색 색인용), 가사 없으면 "", 모르면 null
+        final int loudnessStamp;      // 음량을 잴 수 없었을 때의 디코더 구성(LoudnessAnalyzer.decoderStamp), 시도 전이면 0
+
+        Entry(long size, long mtime, String title, String artist, String album,
+              int durationMs, boolean hasLyrics, int lyricsOffsetMs, float trackGainDb, long artHash,
+              String format, long audioBytes, long audioHash, String lyricsWords, int loudnessStamp) {
+            this.size = size;
+            this.mtime = mtime;
+            this.title = title;
+            this.artist = artist;
+            this.album = album;
+            this.durationMs = durationMs;
+            this.hasLyrics = hasLyrics;
+            this.lyricsOffsetMs = lyricsOffsetMs;
+            this.trackGainDb = trackGainDb;
+            this.artHash = artHash;
+            this.format = format;
+            this.audioBytes = audioBytes;
+            this.audioHash = audioHash;
+            this.lyricsWords = lyricsWords;
+            this.loudnessStamp = loudnessStamp;
+        }
+
+        Entry withTrackGain(float gainDb) {
+            return new Entry(size, mtime, title, artist, album, durationMs, hasLyrics, lyricsOffsetMs, gainDb, artHash,
+                    format, audioBytes, audioHash, lyricsWords, loudnessStamp);
+        }
+
+        Entry withFormat(String format) {
+            return new Entry(size, mtime, title, artist, album, durationMs, hasLyrics, lyricsOffsetMs, trackGainDb,
+                    artHash, format, audioBytes, audioHash, lyricsWords, loudnessStamp);
+        }
+
+        Entry withAudio(long bytes, long hash) {
+            return new Entry(size, mtime, title, artist, album, durationMs, hasLyrics, lyricsOffsetMs, trackGainDb,
+                    artHash, format, bytes, hash, lyricsWords, loudnessStamp);
+        }
+
+        Entry withLoudnessStamp(int stamp) {
+            return new Entry(size, mtime, title, artist, album, durationMs, hasLyrics, lyricsOffsetMs, trackGainDb,
+                    artHash, format, audioBytes, audioHash, lyricsWords, stamp);
+        }
+
+        boolean matches(long size, long mtime) {
+            return this.size == size && this.mtime == mtime;
+        }
+
+        // ARTIST - TITLE, 태그가 없으면 null
+        String displayTitle() {
+            if (!title.isEmpty() && !artist.isEmpty()) return artist + " - " + title;
+            if (!title.isEmpty()) return title;
+            return null;
+        }
+    }
+
+    private static final int MAGIC = 0x4D503349; // "MP3I"
+    private static final int VERSION = 7;
+    static final long ART_UNKNOWN = -1;
+    private static final int MAX_UTF = 16_000;
+
+    private final Path file;
+    private final Map<String, Entry> entries = new ConcurrentHashMap<>();
+    private volatile boolean dirty;
+
+    MetadataIndex(Path file) {
+        this.file = file;
+    }
+
+    static MetadataIndex openDefault() {
+        return new MetadataIndex(AppDirs.configDir().resolve("metadata.idx"));
+    }
+
+    /** 디스크 확인 없이 메모리에 있는 항목을 돌려준다(리스트 셀용). */
+    Entry peek(Path track) {
+        return entries.get(key(track));
+    }
+
+    /** 크기/수정 시각이 맞는 항목만 돌려주고, 없거나 낡았으면 태그를 다시 읽어 갱신한다. */
+    Entry getOrRead(Path track) {
+        BasicFileAttributes attrs;
+        try {
+            attrs = Files.readAttributes(track, BasicFileAttributes.class, LinkOption.NOFOLLOW_LINKS);
+        } catch (IOException ex) {
+            return null;
+        }
+        long size = attrs.size();
+        long mtime = attrs.lastModifiedTime().toMillis();
+        String key = key(track);
+        Entry e = entries.get(key);
+        if (e != null && e.matches(size, mtime) && isComplete(e)) {
+            if (e.format != null) return e;
+            // 형식만 빠진 항목은 태그를 다시 읽지 않고 머리 바이트만 본다
+            Entry probed = e.withFormat(probeFormat(track));
+            entries.put(key, probed);
+            dirty = true;
+            return probed;
+        }
+        Entry fresh = carryOver(e, readEntry(track, size, mtime));
+        entries.put(key, fresh);
+        dirty = true;
+        return fresh;
+    }
+
+    /** 다른 경로로 이미 읽은 메타데이터를 인덱스에 반영한다(항목이 최신이면 무시). */
+    void record(TrackMetadata meta) {
+        BasicFileAttributes attrs;
+        try {
+            attrs = Files.readAttributes(meta.path, BasicFileAttributes.class, LinkOption.NOFOLLOW_LINKS);
+        } catch (IOException ex) {
+            return;
+        }
+        long size = attrs.size();
+        long mtime = attrs.lastModifiedTime().toMillis();
+        String key = key(meta.path);
+        Entry e = entries.get(key);
+        if (e != null && e.matches(size, mtime) && isComplete(e)) return;
+        entries.put(key, carryOver(e, toEntry(meta, size, mtime)));
+        dirty = true;
+    }
+
+    /** 분석이 끝난 음량 보정값을 기록한다. 그사이 파일이 바뀌어 항목이 교체됐으면 무시. */
+    void setTrackGain(Path track, MetadataIndex.Entry analyzed, float gainDb) {
+        String key = key(track);
+        if (entries.replace(key, analyzed, analyzed.withTrackGain(gainDb))) dirty = true;
+    }
+
+    /** 음량을 잴 수 없었음을 기록한다(보정값은 NaN 그대로). 같은 디코더 구성에서는 다시 분석하지 않는다. */
+    void setLoudnessUnmeasurable(Path track, MetadataIndex.Entry analyzed, int decoderStamp) {
+        String key = key(track);
+        if (entries.replace(key, analyzed, analyzed.withLoudnessStamp(decoderStamp))) dirty = true;
+    }
+
+    /** 중복 찾기에서 계산한 오디오 본문 길이/해시를 기록한다. 항목이 교체됐으면 무시. */
+    void setAudio(Path track, MetadataIndex.Entry analyzed, long bytes, long hash) {
+        String key = key(track);
+        if (entries.replace(key, analyzed, analyzed.withAudio(bytes, hash))) dirty = true;
+    }
+
+    int size() {
+        return entries.size();
+    }
+
+    void load() {
+        if (!Files.isRegularFile(file)) return;
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file), 1 << 16))) {
+            if (in.readInt() != MAGIC) return;
+            int version = in.readInt();
+            if (version < 1 || version > VERSION) return;
+            int count = in.readInt();
+            for (int i = 0; i < count; i++) {
+                String path = in.readUTF();
+                long size = in.readLong();
+                long mtime = in.readLong();
+                String title = in.readUTF();
+                String artist = in.readUTF();
+                String album = in.readUTF();
+                int durationMs = in.readInt();
+                byte flags = in.readByte();
+                int offsetMs = in.readInt();
+                float gain = version >= 2 ? in.readFloat() : Float.NaN;
+                long artHash = version >= 3 ? in.readLong() : ART_UNKNOWN;
+                String format = version >= 4 ? in.readUTF() : null;
+                long audioBytes = version >= 5 ? in.readLong() : -1;
+                long audioHash = version >= 5 ? in.readLong() : 0;
+                boolean hasLyrics = (flags & 1) != 0;
+                String lyricsWords = version >= 6 ? in.readUTF() : hasLyrics ? null : "";
+                int loudnessStamp = version >= 7 ? in.readInt() : 0;
+                // 6 이하는 잴 수 없는 파일도 0 dB로 저장했으므로 다시 잰다
+                if (version < 7 && gain == 0f) gain = Float.NaN;
+                entries.put(path, new Entry(size, mtime, title, artist, album, durationMs, hasLyrics, offsetMs,
+                        gain, artHash, format, audioBytes, audioHash, lyricsWords, loudnessStamp));
+            }
+        } catch (EOFException ex) {
+            // 잘린 파일: 읽은 데까지만 사용
+        } catch (IOException ex) {
+            entries.clear();
+        }
+        dirty = false;
+    }
+
+    synchronized void saveIfDirty() {
+        if (!dirty) return;
+        dirty = false;
+        Path tmp = file.resolveSibling(file.getFileName() + ".tmp");
+        try {
+            try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(tmp), 1 << 16))) {
+                // 저장 중 추가되는 항목이 있어도 count와 실제 개수가 어긋나지 않게 스냅샷을 쓴다
+                Map.Entry<?, ?>[] snapshot = entries.entrySet().toArray(new Map.Entry<?, ?>[0]);
+                out.writeInt(MAGIC);
+                out.writeInt(VERSION);
+                out.writeInt(snapshot.length);
+                for (Map.Entry<?, ?> me : snapshot) {
+                    Entry e = (Entry) me.getValue();
+                    out.writeUTF(clip((String) me.getKey()));
+                    out.writeLong(e.size);
+                    out.writeLong(e.mtime);
+                    out.writeUTF(clip(e.title));
+                    out.writeUTF(clip(e.artist));
+                    out.writeUTF(clip(e.album));
+                    out.writeInt(e.durationMs);
+                    out.writeByte(e.hasLyrics ? 1 : 0);
+                    out.writeInt(e.lyricsOffsetMs);
+                    out.writeFloat(e.trackGainDb);
+                    out.writeLong(e.artHash);
+                    out.writeUTF(e.format != null ? e.format : "");
+                    out.writeLong(e.audioBytes);
+                    out.writeLong(e.audioHash);
+                    out.writeUTF(e.lyricsWords != null ? clip(e.lyricsWords) : "");
+                    out.writeInt(e.loudnessStamp);
+                }
+            }
+            Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException ex) {
+            dirty = true;
+        }
+    }
+
+    // 태그를 다시 읽어야 채울 수 있는 값(아트워크 해시, 가사 단어)이 다 있는지
+    private static boolean isComplete(Entry e) {
+        return e.artHash != ART_UNKNOWN && e.lyricsWords != null;
+    }
+
+    private static String key(Path track) {
+        return track.toAbsolutePath().toString();
+    }
+
+    // writeUTF는 64KB 제한이 있어서 긴 태그는 자른다
+    private static String clip(String s) {
+        return s.length() > MAX_UTF ? s.substring(0, MAX_UTF) : s;
+    }
+
+    // 같은 파일을 빠진 값 때문에 다시 읽은 경우, 분석해 둔 음량 보정값(또는 잴 수 없었다는 표시)과 오디오 해시는 살린다
+    private static Entry carryOver(Entry old, Entry fresh) {
+        if (old == null || !old.matches(fresh.size, fresh.mtime)) return fresh;
+        Entry e = fresh;
+        if (Float.isNaN(e.trackGainDb) && !Float.isNaN(old.trackGainDb)) e = e.withTrackGain(old.trackGainDb);
+        if (Float.isNaN(e.trackGainDb) && old.loudnessStamp != 0) e = e.withLoudnessStamp(old.loudnessStamp);
+        if (old.audioHash != 0) e = e.withAudio(old.audioBytes, old.audioHash);
+        return e;
+    }
+
+    private static Entry readEntry(Path track, long size, long mtime) {
+        return toEntry(TrackMetadata.read(track), size, mtime);
+    }
+
+    // 가사는 옆 LRC가 있으면 그쪽을, 없으면 내장 가사를 검색 색인용 단어로 줄여 둔다(다음 실행부터 다시 읽지 않게)
+    private static Entry toEntry(TrackMetadata meta, long size, long mtime) {
+        boolean hasLyrics = meta.hasLyrics();
+        int offsetMs = 0;
+        String lyricsText = meta.lyrics;
+        Path lrc = TrackFiles.sidecarLrc(meta.path);
+        if (Files.isRegularFile(lrc)) {
+            hasLyrics = true;
+            offsetMs = LrcParser.readOffsetMs(lrc);
+            lyricsText = lrcText(lrc);
+        }
+        long artHash = meta.artwork != null ? ThumbnailStore.contentHash(meta.artwork) : 0;
+        return new Entry(size, mtime, meta.title, meta.artist, meta.album, meta.durationMs, hasLyrics, offsetMs,
+                meta.replayGainDb, artHash, probeFormat(meta.path), -1, 0, distinctWords(lyricsText), 0);
+    }
+
+    private static String lrcText(Path lrc) {
+        try {
+            StringBuilder sb = new StringBuilder();
+            for (LyricLine l : LrcParser.parse(lrc)) sb.append(l.text).append('\n');
+            return sb.toString();
+        } catch (IOException | RuntimeException ex) {
+            return "";
+        }
+    }
+
+    // 공백 단위로 중복을 뺀다. 토큰화(초성 등)는 색인할 때 SearchIndex가 한다.
+    private static String distinctWords(String text) {
+        if (text == null || text.isBlank()) return "";
+        Set<String> words = new LinkedHashSet<>();
+        for (String w : text.toLowerCase(Locale.ROOT).split("\\s+")) {
+            if (!w.isEmpty()) words.add(w);
+        }
+        return clip(String.join(" ", words));
+    }
+
+    private static String probeFormat(Path track) {
+        AudioFormats.Format f = AudioFormats.probe(track);
+        return f != null ? f.name : "";
+    }
+}
@@ -0,0 +1,158 @@
+package org.example;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 앱 안에서 바로 볼 수 있는 지연 시간 히스토그램과 카운터.
+ * 같은 지점에서 JFR 이벤트({@link PlayerEvents})도 남기므로, 여기 값은 요약용이고
+ * 파일별 상세는 JFR 기록에서 본다. 기록은 락 없이 원자 연산만 쓴다.
+ */
+final class Metrics {
+
+    static final Histogram TIME_TO_AUDIO = new Histogram("playAt → 재생 시작");
+    static final Histogram MEDIA_READY = new Histogram("Media 생성 → READY");
+    static final Histogram TAG_READ = new Histogram("태그 읽기");
+    static final Histogram LRC_PARSE = new Histogram("LRC 파싱");
+    static final Histogram SCAN = new Histogram("폴더 스캔");
+
+    static final Counter FILES_SCANNED = new Counter("스캔한 파일");
+    static final Counter UI_FRAMES = new Counter("진행 타이머 프레임");
+    static final Counter UI_UPDATES = new Counter("시간/가사 갱신");
+
+    static final List<Histogram> HISTOGRAMS = List.of(TIME_TO_AUDIO, MEDIA_READY, TAG_READ, LRC_PARSE, SCAN);
+    static final List<Counter> COUNTERS = List.of(FILES_SCANNED, UI_FRAMES, UI_UPDATES);
+
+    private static volatile double lastScanFilesPerSec;
+
+    private Metrics() {}
+
+    static void scanFinished(long files, long elapsedNanos) {
+        SCAN.record(elapsedNanos, null);
+        FILES_SCANNED.add(files);
+        if (elapsedNanos > 0) lastScanFilesPerSec = files * 1e9 / elapsedNanos;
+    }
+
+    /** 2의 거듭제곱 마이크로초 구간별 개수. 가장 느린 항목의 이름도 남긴다. */
+    static final class Histogram {
+        private static final int BUCKETS = 40;
+
+        final String name;
+        private final AtomicLongArray buckets = new AtomicLongArray(BUCKETS);
+        private final LongAdder count = new LongAdder();
+        private final AtomicReference<Slowest> slowest = new AtomicReference<>(new Slowest(0, null));
+
+        Histogram(String name) {
+            this.name = name;
+        }
+
+        /** subject: 느린 원인을 찾을 때 쓸 이름(파일 경로 등), 없으면 null */
+        void record(long nanos, Object subject) {
+            if (nanos < 0) nanos = 0;
+            long micros = nanos / 1000;
+            int b = Math.min(BUCKETS - 1, 64 - Long.numberOfLeadingZeros(micros));
+            buckets.incrementAndGet(b);
+            count.increment();
+            Slowest cur = slowest.get();
+            while (nanos > cur.nanos) {
+                Slowest next = new Slowest(nanos, subject != null ? subject.toString() : null);
+                if (slowest.compareAndSet(cur, next)) break;
+                cur = slowest.get();
+            }
+        }
+
+        long count() {
+            return count.sum();
+        }
+
+        /** 백분위수가 속한 구간의 상한(ms, 최댓값 이하로 자름). 기록이 없으면 0. */
+        double percentileMillis(double p) {
+            long n = 0;
+            long[] snap = new long[BUCKETS];
+            for (int i = 0; i < BUCKETS; i++) n += (snap[i] = buckets.get(i));
+            if (n == 0) return 0;
+            long rank = (long) Math.ceil(p / 100.0 * n);
+            long seen = 0;
+            for (int i = 0; i < BUCKETS; i++) {
+                seen += snap[i];
+                if (seen >= rank) return Math.min((i == 0 ? 1 : 1L << i) / 1000.0, maxMillis());
+            }
+            return maxMillis();
+        }
+
+        double maxMillis() {
+            return slowest.get().nanos / 1e6;
+        }
+
+        String slowestSubject() {
+            return slowest.get().subject;
+        }
+
+        private static final class Slowest {
+            final long nanos;
+            final String subject;
+
+            Slowest(long nanos, String subject) {
+                this.nanos = nanos;
+                this.subject = subject;
+            }
+        }
+    }
+
+    static final class Counter {
+        final String name;
+        private final LongAdder value = new LongAdder();
+
+        Counter(String name) {
+            this.name = name;
+        }
+
+        void increment() {
+            value.increment();
+        }
+
+        void add(long n) {
+            value.add(n);
+        }
+
+        long get() {
+            return value.sum();
+        }
+    }
+
+    /** 오버레이/내보내기용 요약 표. */
+    static String report() {
+        StringBuilder sb = new StringBuilder(1024);
+        sb.append(String.format(Locale.ROOT, "%-18s %7s %8s %8s %8s %9s%n", "", "n", "p50", "p90", "p99", "max(ms)"));
+        for (Histogram h : HISTOGRAMS) {
+            sb.append(String.format(Locale.ROOT, "%-18s %7d %8.1f %8.1f %8.1f %9.1f%n", h.name, h.count(),
+                    h.percentileMillis(50), h.percentileMillis(90), h.percentileMillis(99), h.maxMillis()));
+        }
+        for (Counter c : COUNTERS) {
+            sb.append(String.format(Locale.ROOT, "%-18s %7d%n", c.name, c.get()));
+        }
+        sb.append(String.format(Locale.ROOT, "최근 스캔 속도      %,.0f files/s%n", lastScanFilesPerSec));
+        return sb.toString();
+    }
+
+    /** 요약 표와 항목별 가장 느린 대상을 텍스트 파일로 쓴다. */
+    static void writeReport(Path file) throws IOException {
+        StringBuilder sb = new StringBuilder(report());
+        sb.append('\n').append("가장 느린 항목").append('\n');
+        for (Histogram h : HISTOGRAMS) {
+            String s = h.slowestSubject();
+            if (s != null) sb.append(String.format(Locale.ROOT, "%-18s %9.1f ms  %s%n", h.name, h.maxMillis(), s));
+        }
+        sb.insert(0, "# mp3player metrics " + LocalDateTime.now() + "\n\n");
+        Files.createDirectories(file.getParent());
+        Files.writeString(file, sb, StandardCharsets.UTF_8);
+    }
+}
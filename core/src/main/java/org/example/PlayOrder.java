@@ -0,0 +1,291 @@
+package org.example;
+
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.function.IntPredicate;
+
+/**
+ * 재생 순서 엔진: '다음에 재생' 대기열, 재생 기록, 셔플.
+ *
+ * 셔플은 섞인 목록을 만들지 않고 위치 [0, n)에 대한 전단사 순열(Feistel + cycle-walking)을
+ * 커서로 따라간다. 한 바퀴 동안 이미 재생한 곡은 트랙 id 기준 BitSet으로 건너뛰므로,
+ * 재생목록이 바뀌어(추가/삭제/정렬) 순열을 새로 만들어도 같은 곡이 다시 나오지 않는다.
+ * 대기열과 기록도 트랙 id로 들고 있다가 꺼낼 때 지금 위치를 찾고, 목록에서 빠진 곡은 건너뛴다.
+ *
+ * 위치 계산만 하고 재생은 하지 않는다. 실제로 곡이 시작되면 {@link #started}로 알려 준다.
+ * FX 스레드에서만 사용한다.
+ */
+final class PlayOrder {
+
+    /** 재생목록에서 순서 계산에 필요한 부분 */
+    interface Tracks {
+        int size();
+
+        int idAt(int pos);
+
+        /** 목록에 없으면 -1 */
+        int indexOf(int id);
+    }
+
+    private static final int MAX_HISTORY = 4096;
+
+    private final ArrayDeque<Integer> queue = new ArrayDeque<>();
+    private int[] history = new int[64];
+    private int historyLen;
+    private int historyPos = -1;      // 지금 곡의 기록 위치. 뒤로 가면 끝보다 앞에 있다.
+    private int fromQueue = -1;       // 대기열에서 꺼내 준 곡(재생 맥락을 바꾸지 않는다)
+    private int contextId = -1;       // 대기열이 끝나면 이어 갈 곡
+
+    private boolean shuffle;
+    private long seed;
+    private Permutation perm;
+    private int cursor;
+    private final BitSet played = new BitSet();
+
+    PlayOrder(long seed) {
+        this.seed = seed;
+    }
+
+    boolean isShuffle() {
+        return shuffle;
+    }
+
+    /** 켜면 새 순서로 한 바퀴를 시작한다(지금 곡은 재생한 것으로). */
+    void setShuffle(boolean on, int currentId) {
+        if (shuffle == on) return;
+        shuffle = on;
+        played.clear();
+        perm = null;
+        seed = mix(seed + 1);
+        if (currentId >= 0) played.set(currentId);
+    }
+
+    /** 새 폴더를 열었을 때: 대기열과 기록을 버린다. */
+    void reset() {
+        queue.clear();
+        historyLen = 0;
+        historyPos = -1;
+        fromQueue = -1;
+        contextId = -1;
+        played.clear();
+        perm = null;
+    }
+
+    /** playNow면 대기열 맨 앞(다음 곡), 아니면 맨 뒤. */
+    void enqueue(int id, boolean playNow) {
+        if (playNow) queue.addFirst(id);
+        else queue.addLast(id);
+    }
+
+    int queued() {
+        return queue.size();
+    }
+
+    void clearQueue() {
+        queue.clear();
+    }
+
+    /** 곡이 실제로 시작됐을 때. 기록을 따라 이동한 경우가 아니면 기록 끝에 붙인다. */
+    void started(int id) {
+        played.set(id);
+        if (id != fromQueue) contextId = id;
+        fromQueue = -1;
+        if (historyPos >= 0 && historyPos < historyLen && history[historyPos] == id) return;
+        if (historyLen == history.length) {
+            if (historyLen >= MAX_HISTORY) {
+                // 오래된 절반을 버린다
+                int drop = historyLen / 2;
+                System.arraycopy(history, drop, history, 0, historyLen - drop);
+                historyLen -= drop;
+            } else {
+                history = Arrays.copyOf(history, historyLen * 2);
+            }
+        }
+        history[historyLen++] = id;
+        historyPos = historyLen - 1;
+    }
+
+    /** 다음 곡 위치, 없으면 -1. 어느 모드든 대기열이 먼저, 그다음 (셔플이면 앞으로 가기 기록 → 순열) 또는 목록 순서. */
+    int next(Tracks tracks, int cur, RepeatMode mode, IntPredicate playable) {
+        while (!queue.isEmpty()) {
+            int id = queue.pollFirst();
+            int pos = tracks.indexOf(id);
+            if (pos >= 0 && playable.test(pos)) {
+                fromQueue = id;
+                return pos;
+            }
+        }
+        if (!shuffle) return PlaybackQueue.next(contextPos(tracks, cur), tracks.size(), mode, playable);
+        for (int h = historyPos + 1; h < historyLen; h++) {
+            int pos = tracks.indexOf(history[h]);
+            if (pos >= 0 && playable.test(pos)) {
+                historyPos = h;
+                return pos;
+            }
+        }
+
+        int pos = nextShuffled(tracks, playable);
+        if (pos < 0 && mode == RepeatMode.REPEAT_ALL) {
+            // 한 바퀴 끝: 새 순서로 다시(방금 곡이 바로 또 나오지 않게)
+            played.clear();
+            if (cur >= 0 && cur < tracks.size()) played.set(tracks.idAt(cur));
+            seed = mix(seed + 1);
+            perm = null;
+            pos = nextShuffled(tracks, playable);
+        }
+        return pos;
+    }
+
+    /**
+     * 이전 곡 위치, 없으면 -1. 셔플이면 재생 기록을 거슬러 가고, 기록이 끝나면 순열에서
+     * 지금 곡 앞자리로 물러난다(끝에서의 처리는 목록 순서와 같다). 아니면 목록 순서.
+     */
+    int previous(Tracks tracks, int cur, RepeatMode mode, IntPredicate playable) {
+        if (!shuffle) return PlaybackQueue.previous(cur, tracks.size(), mode, playable);
+        for (int h = historyPos - 1; h >= 0; h--) {
+            int pos = tracks.indexOf(history[h]);
+            if (pos >= 0 && playable.test(pos)) {
+                historyPos = h;
+                return pos;
+            }
+        }
+        int size = tracks.size();
+        if (cur < 0 || cur >= size) return -1;
+        syncPermutation(size);
+        int slot = PlaybackQueue.previous(perm.invert(cur), size, mode, k -> playable.test(perm.apply(k)));
+        return slot >= 0 ? perm.apply(slot) : -1;
+    }
+
+    /** 상태를 바꾸지 않고 다음에 재생될 최대 count개 위치(미리 준비/점검용). 한 곡 반복이면 비어 있다. */
+    int[] upcoming(Tracks tracks, int cur, RepeatMode mode, int count, IntPredicate playable) {
+        if (cur < 0 || tracks.size() == 0 || mode == RepeatMode.REPEAT_ONE || count <= 0) return new int[0];
+        int[] out = new int[count];
+        int n = 0;
+        for (int id : queue) {
+            if (n == count) break;
+            int pos = tracks.indexOf(id);
+            if (pos >= 0 && playable.test(pos)) out[n++] = pos;
+        }
+        if (shuffle) {
+            for (int h = historyPos + 1; h < historyLen && n < count; h++) {
+                int pos = tracks.indexOf(history[h]);
+                if (pos >= 0 && playable.test(pos)) out[n++] = pos;
+            }
+        }
+        if (n < count) {
+            if (shuffle) {
+                // 목록 길이가 바뀌었으면 next()가 만들 순열을 미리 만들어 보기만 한다
+                int size = tracks.size();
+                Permutation p = perm != null && perm.size == size ? perm : new Permutation(size, seed);
+                for (int k = p == perm ? cursor : 0; k < size && n < count; k++) {
+                    int pos = p.apply(k);
+                    if (!played.get(tracks.idAt(pos)) && playable.test(pos)) out[n++] = pos;
+                }
+            } else {
+                for (int pos : PlaybackQueue.upcoming(contextPos(tracks, cur), tracks.size(), mode, count - n, playable)) {
+                    out[n++] = pos;
+                }
+            }
+        }
+        return Arrays.copyOf(out, n);
+    }
+
+    // 대기열 곡을 재생하는 중이면 목록 순서는 그 전에 듣던 곡에서 이어 간다
+    private int contextPos(Tracks tracks, int cur) {
+        if (contextId < 0) return cur;
+        int pos = tracks.indexOf(contextId);
+        return pos >= 0 ? pos : cur;
+    }
+
+    private int nextShuffled(Tracks tracks, IntPredicate playable) {
+        int size = tracks.size();
+        syncPermutation(size);
+        for (int k = cursor; k < size; k++) {
+            int pos = perm.apply(k);
+            if (!played.get(tracks.idAt(pos)) && playable.test(pos)) {
+                cursor = k + 1;
+                return pos;
+            }
+        }
+        cursor = size;
+        return -1;
+    }
+
+    // 목록 길이가 바뀌면 같은 시드로 순열을 새로 만들고 처음부터 훑는다(재생한 곡은 BitSet이 걸러 준다)
+    private void syncPermutation(int size) {
+        if (perm != null && perm.size == size) return;
+        perm = new Permutation(size, seed);
+        cursor = 0;
+    }
+
+    private static long mix(long z) {
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+
+    /**
+     * [0, size) 위의 전단사 함수. 2^(2h) ≥ size인 정의역에서 4라운드 Feistel을 돌리고,
+     * 범위를 벗어난 값은 다시 돌린다(cycle-walking). 정의역이 size의 4배 미만이라 평균 몇 번이면 끝난다.
+     */
+    static final class Permutation {
+        private static final int ROUNDS = 4;
+
+        final int size;
+        private final int halfBits;
+        private final int halfMask;
+        private final long[] keys = new long[ROUNDS];
+
+        Permutation(int size, long seed) {
+            this.size = size;
+            int bits = 32 - Integer.numberOfLeadingZeros(Math.max(1, size - 1));
+            halfBits = Math.max(1, (bits + 1) / 2);
+            halfMask = (1 << halfBits) - 1;
+            long k = seed;
+            for (int r = 0; r < ROUNDS; r++) keys[r] = k = mix(k + 0x9E3779B97F4A7C15L);
+        }
+
+        int apply(int index) {
+            if (index < 0 || index >= size) throw new IndexOutOfBoundsException(index);
+            int x = index;
+            do {
+                x = encrypt(x);
+            } while (x >= size);
+            return x;
+        }
+
+        /** apply의 역함수: 위치 → 순열 안의 자리 */
+        int invert(int value) {
+            if (value < 0 || value >= size) throw new IndexOutOfBoundsException(value);
+            int x = value;
+            do {
+                x = decrypt(x);
+            } while (x >= size);
+            return x;
+        }
+
+        private int encrypt(int x) {
+            int left = x >>> halfBits;
+            int right = x & halfMask;
+            for (int r = 0; r < ROUNDS; r++) {
+                int f = (int) mix(right ^ keys[r]) & halfMask;
+                int next = left ^ f;
+                left = right;
+                right = next;
+            }
+            return (left << halfBits) | right;
+        }
+
+        private int decrypt(int x) {
+            int left = x >>> halfBits;
+            int right = x & halfMask;
+            for (int r = ROUNDS - 1; r >= 0; r--) {
+                int prev = left;
+                left = right ^ ((int) mix(prev ^ keys[r]) & halfMask);
+                right = prev;
+            }
+            return (left << halfBits) | right;
+        }
+    }
+}
@@ -0,0 +1,64 @@
+package org.example;
+
+import java.util.Arrays;
+import java.util.function.IntPredicate;
+
+/**
+ * 재생목록 위치 계산(다음/이전/미리 준비할 곡). UI와 무관한 순수 함수만 둔다.
+ * 반환값 -1은 '더 재생할 곡 없음'. playable을 받는 판은 재생할 수 없는 위치를 건너뛴다.
+ */
+final class PlaybackQueue {
+
+    private PlaybackQueue() {}
+
+    static int next(int cur, int size, RepeatMode mode) {
+        if (size == 0) return -1;
+        if (cur < size - 1) return cur + 1;
+        return mode == RepeatMode.REPEAT_ALL ? 0 : -1;
+    }
+
+    static int next(int cur, int size, RepeatMode mode, IntPredicate playable) {
+        int i = cur;
+        for (int step = 0; step < size; step++) {
+            i = next(i, size, mode);
+            if (i < 0 || playable.test(i)) return i;
+        }
+        return -1;
+    }
+
+    static int previous(int cur, int size, RepeatMode mode) {
+        if (size == 0) return -1;
+        if (cur > 0) return cur - 1;
+        return mode == RepeatMode.REPEAT_ALL ? size - 1 : -1;
+    }
+
+    static int previous(int cur, int size, RepeatMode mode, IntPredicate playable) {
+        int i = cur;
+        for (int step = 0; step < size; step++) {
+            i = previous(i, size, mode);
+            if (i < 0 || playable.test(i)) return i;
+        }
+        return -1;
+    }
+
+    /** cur 다음으로 재생될 최대 count개 위치. 한 곡 반복이면 비어 있다. */
+    static int[] upcoming(int cur, int size, RepeatMode mode, int count) {
+        return upcoming(cur, size, mode, count, i -> true);
+    }
+
+    static int[] upcoming(int cur, int size, RepeatMode mode, int count, IntPredicate playable) {
+        if (cur < 0 || size == 0 || mode == RepeatMode.REPEAT_ONE) return new int[0];
+        int[] out = new int[count];
+        int n = 0;
+        for (int k = 1; k < size + 1 && n < count; k++) {
+            int next = cur + k;
+            if (next >= size) {
+                if (mode != RepeatMode.REPEAT_ALL) break;
+                next %= size;
+            }
+            if (next == cur) break;
+            if (playable.test(next)) out[n++] = next;
+        }
+        return Arrays.copyOf(out, n);
+    }
+}
@@ -0,0 +1,87 @@
+package org.example;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.Period;
+import jdk.jfr.Timespan;
+
+/**
+ * 플레이어 JFR 이벤트. -XX:StartFlightRecording으로 켜 두면 프로파일러 없이도
+ * 느린 파일/저장소를 기록에서 찾을 수 있다. 기록 중이 아니면 commit은 거의 비용이 없다.
+ */
+final class PlayerEvents {
+
+    private PlayerEvents() {}
+
+    @Name("org.example.TrackStart")
+    @Label("Track Start")
+    @Category({"MP3 Player", "Playback"})
+    @Description("playAt 호출부터 실제 재생 시작까지")
+    static final class TrackStart extends Event {
+        @Label("Path")
+        String path;
+
+        @Label("Preloaded")
+        boolean preloaded;
+
+        @Label("Until READY")
+        @Timespan(Timespan.NANOSECONDS)
+        long readyNanos;
+    }
+
+    @Name("org.example.TagRead")
+    @Label("Tag Read")
+    @Category({"MP3 Player", "I/O"})
+    static final class TagRead extends Event {
+        @Label("Path")
+        String path;
+
+        @Label("File Size")
+        @DataAmount
+        long size;
+    }
+
+    @Name("org.example.LrcParse")
+    @Label("LRC Parse")
+    @Category({"MP3 Player", "I/O"})
+    static final class LrcParse extends Event {
+        @Label("Path")
+        String path;
+
+        @Label("Lines")
+        int lines;
+    }
+
+    @Name("org.example.LibraryScan")
+    @Label("Library Scan")
+    @Category({"MP3 Player", "I/O"})
+    static final class LibraryScan extends Event {
+        @Label("Root")
+        String root;
+
+        @Label("Files")
+        long files;
+
+        @Label("Directories")
+        long directories;
+
+        @Label("Cancelled")
+        boolean cancelled;
+    }
+
+    @Name("org.example.UiRate")
+    @Label("UI Update Rate")
+    @Category({"MP3 Player", "UI"})
+    @Period("1 s")
+    static final class UiRate extends Event {
+        @Label("Timer Frames/s")
+        long frames;
+
+        @Label("UI Updates/s")
+        long updates;
+    }
+}
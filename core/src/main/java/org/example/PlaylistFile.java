@@ -0,0 +1,284 @@
+package org.example;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.net.URI;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.CharacterCodingException;
+import java.nio.charset.Charset;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.BooleanSupplier;
+
+/**
+ * M3U/M3U8/PLS 재생목록 읽기/쓰기.
+ *
+ * 읽기는 채널에서 READ_BYTES씩 읽어 줄 단위로 훑고(매핑하지 않으므로 같은 파일에 바로 다시 쓸 수 있다), 항목을 BATCH_SIZE개씩 모아
+ * 폴더별로 한 번만 목록을 읽어 존재를 확인한 뒤 {@link Listener}로 흘려보낸다(호출한 스레드에서).
+ * 상대 경로는 재생목록 파일이 있는 폴더 기준이다. M3U8은 UTF-8, M3U/PLS는 UTF-8로 읽되
+ * 깨지는 줄만 시스템 인코딩(한국어 윈도우의 CP949 등)으로 다시 읽는다.
+ *
+ * 쓰기는 M3U(8)이면 #EXTINF(길이, 제목)를 인덱스에 있는 태그로 채우고, 재생목록 폴더 아래 곡은 상대 경로로 쓴다.
+ */
+final class PlaylistFile {
+
+    interface Listener {
+        /** 파일 순서대로 존재가 확인된 곡과, 찾지 못한 항목(원문 그대로) */
+        void onBatch(List<Path> found, List<String> missing);
+        void onDone(int found, int missing);
+    }
+
+    static final int BATCH_SIZE = 2048;
+    private static final int READ_BYTES = 1 << 16;
+    private static final Charset FALLBACK = fallbackCharset();
+
+    private PlaylistFile() {}
+
+    static boolean isPlaylistFile(Path p) {
+        String ext = AudioFormats.extensionOf(p);
+        return ext.equals("m3u") || ext.equals("m3u8") || ext.equals("pls");
+    }
+
+    /** 끝까지 읽거나 cancelled가 참이 될 때까지. 파일 자체를 못 읽으면 IOException. */
+    static void read(Path file, Listener listener, BooleanSupplier cancelled) throws IOException {
+        Path base = file.toAbsolutePath().getParent();
+        boolean pls = AudioFormats.extensionOf(file).equals("pls");
+        boolean utf8Only = AudioFormats.extensionOf(file).equals("m3u8");
+        Resolver resolver = new Resolver(base, listener);
+
+        try (FileChannel ch = FileChannel.open(file, StandardOpenOption.READ)) {
+            CharsetDecoder strict = StandardCharsets.UTF_8.newDecoder()
+                    .onMalformedInput(CodingErrorAction.REPORT)
+                    .onUnmappableCharacter(CodingErrorAction.REPORT);
+            ByteBuffer buf = ByteBuffer.allocate(READ_BYTES);
+            byte[] line = new byte[512];
+            int len = 0;
+            boolean first = true;
+            while (ch.read(buf.clear()) >= 0) {
+                buf.flip();
+                while (buf.hasRemaining()) {
+                    byte b = buf.get();
+                    if (b != '\n') {
+                        if (len == line.length) line = Arrays.copyOf(line, len * 2);
+                        line[len++] = b;
+                        continue;
+                    }
+                    if (onLine(line, len, first, pls, utf8Only, strict, resolver) && cancelled.getAsBoolean()) return;
+                    first = false;
+                    len = 0;
+                }
+            }
+            if (len > 0) onLine(line, len, first, pls, utf8Only, strict, resolver);
+        }
+        resolver.flush();
+        listener.onDone(resolver.found, resolver.missing);
+    }
+
+    // 한 줄(끝의 \n 제외)을 처리한다. 배치를 내보냈으면 true(취소 확인 시점).
+    private static boolean onLine(byte[] b, int len, boolean first, boolean pls, boolean utf8Only,
+                                  CharsetDecoder strict, Resolver resolver) {
+        int from = 0;
+        // UTF-8 BOM
+        if (first && len >= 3 && (b[0] & 0xFF) == 0xEF && (b[1] & 0xFF) == 0xBB && (b[2] & 0xFF) == 0xBF) from = 3;
+        if (len > from && b[len - 1] == '\r') len--;
+        if (len <= from) return false;
+        String line = decode(ByteBuffer.wrap(b, from, len - from), strict, utf8Only).trim();
+        String location = pls ? plsLocation(line) : m3uLocation(line);
+        return location != null && resolver.add(location);
+    }
+
+    // M3U: '#'로 시작하는 줄(#EXTM3U, #EXTINF 등)은 주석. 길이/제목은 태그를 다시 읽으므로 버린다.
+    private static String m3uLocation(String line) {
+        return line.isEmpty() || line.startsWith("#") ? null : line;
+    }
+
+    // PLS: FileN=위치. TitleN/LengthN/NumberOfEntries는 쓰지 않는다.
+    private static String plsLocation(String line) {
+        if (line.length() < 6 || !line.regionMatches(true, 0, "File", 0, 4)) return null;
+        int eq = line.indexOf('=');
+        if (eq < 0) return null;
+        for (int i = 4; i < eq; i++) if (!Character.isDigit(line.charAt(i))) return null;
+        String v = line.substring(eq + 1).trim();
+        return v.isEmpty() ? null : v;
+    }
+
+    private static String decode(ByteBuffer bytes, CharsetDecoder strict, boolean utf8Only) {
+        if (utf8Only) return StandardCharsets.UTF_8.decode(bytes).toString();
+        int start = bytes.position();
+        try {
+            CharBuffer cb = strict.reset().decode(bytes);
+            return cb.toString();
+        } catch (CharacterCodingException ex) {
+            return FALLBACK.decode(bytes.position(start)).toString();
+        }
+    }
+
+    private static Charset fallbackCharset() {
+        Charset sys = Charset.defaultCharset();
+        if (!sys.equals(StandardCharsets.UTF_8)) return sys;
+        // JDK 18부터 기본값이 UTF-8이라 예전 한국어 윈도우 재생목록용으로 CP949를 쓴다
+        try {
+            return Charset.forName("x-windows-949");
+        } catch (RuntimeException ex) {
+            return StandardCharsets.ISO_8859_1;
+        }
+    }
+
+    /**
+     * 항목을 모아 두었다가 폴더별로 디렉터리 목록을 한 번 읽어 존재를 확인한다.
+     * 같은 폴더의 곡이 이어지는 보통 재생목록에서는 파일마다 stat하는 것보다 시스템 호출이 훨씬 적다.
+     * 목록에 없는 이름은(대소문자를 구분하지 않는 파일 시스템 등) 한 번 더 직접 확인한다.
+     */
+    private static final class Resolver {
+        private static final int MAX_CACHED_DIRS = 4096;
+        private static final Set<String> NO_DIR = Set.of();
+
+        private final Path base;
+        private final Listener listener;
+        private final List<String> pending = new ArrayList<>(BATCH_SIZE);
+        private final Map<Path, Set<String>> dirCache = new HashMap<>();
+        int found;
+        int missing;
+
+        Resolver(Path base, Listener listener) {
+            this.base = base;
+            this.listener = listener;
+        }
+
+        /** 배치를 내보냈으면 true(취소 확인 시점) */
+        boolean add(String location) {
+            pending.add(location);
+            if (pending.size() < BATCH_SIZE) return false;
+            flush();
+            return true;
+        }
+
+        void flush() {
+            if (pending.isEmpty()) return;
+            List<Path> ok = new ArrayList<>(pending.size());
+            List<String> bad = new ArrayList<>();
+            for (String loc : pending) {
+                Path p = toPath(loc);
+                if (p != null && exists(p)) ok.add(p);
+                else bad.add(loc);
+            }
+            pending.clear();
+            found += ok.size();
+            missing += bad.size();
+            listener.onBatch(ok, bad);
+        }
+
+        private Path toPath(String loc) {
+            try {
+                if (loc.regionMatches(true, 0, "file:", 0, 5)) return Paths.get(URI.create(loc)).normalize();
+                if (loc.contains("://")) return null;   // 스트림 URL은 재생목록에 넣지 않는다
+                // 윈도우에서 만든 목록의 '\\' 구분자. '/'는 윈도우에서도 통한다.
+                return base.resolve(loc.replace('\\', '/')).normalize();
+            } catch (IllegalArgumentException ex) {   // InvalidPathException 포함
+                return null;
+            }
+        }
+
+        private boolean exists(Path p) {
+            Path dir = p.getParent();
+            if (dir == null) return false;
+            Set<String> names = dirCache.get(dir);
+            if (names == null) {
+                if (dirCache.size() >= MAX_CACHED_DIRS) dirCache.clear();
+                names = new HashSet<>();
+                try (DirectoryStream<Path> ds = Files.newDirectoryStream(dir)) {
+                    for (Path child : ds) names.add(child.getFileName().toString());
+                } catch (IOException ex) {
+                    names = NO_DIR;   // 폴더가 없거나 읽을 수 없음
+                }
+                dirCache.put(dir, names);
+            }
+            if (names == NO_DIR) return false;
+            return names.contains(p.getFileName().toString()) || Files.isRegularFile(p);
+        }
+    }
+
+    // ---- 쓰기 ----
+
+    /** 확장자(.m3u/.m3u8/.pls)로 형식을 정해 임시 파일에 쓴 뒤 교체한다. */
+    static void write(Path file, List<Path> tracks, MetadataIndex index) throws IOException {
+        Path base = file.toAbsolutePath().getParent();
+        boolean pls = AudioFormats.extensionOf(file).equals("pls");
+        Path tmp = file.resolveSibling(file.getFileName() + ".tmp");
+        try (Writer out = new BufferedWriter(new OutputStreamWriter(
+                Files.newOutputStream(tmp), StandardCharsets.UTF_8), 1 << 16)) {
+            if (pls) writePls(out, base, tracks, index);
+            else writeM3u(out, base, tracks, index);
+        }
+        Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    private static void writeM3u(Writer out, Path base, List<Path> tracks, MetadataIndex index) throws IOException {
+        out.write("#EXTM3U\n");
+        for (Path p : tracks) {
+            MetadataIndex.Entry e = index.peek(p);
+            out.write("#EXTINF:");
+            out.write(Integer.toString(durationSec(e)));
+            out.write(',');
+            out.write(oneLine(titleOf(p, e)));
+            out.write('\n');
+            out.write(location(base, p));
+            out.write('\n');
+        }
+    }
+
+    private static void writePls(Writer out, Path base, List<Path> tracks, MetadataIndex index) throws IOException {
+        out.write("[playlist]\n");
+        int n = 0;
+        for (Path p : tracks) {
+            MetadataIndex.Entry e = index.peek(p);
+            n++;
+            out.write("File" + n + "=" + location(base, p) + "\n");
+            out.write("Title" + n + "=" + oneLine(titleOf(p, e)) + "\n");
+            out.write("Length" + n + "=" + durationSec(e) + "\n");
+        }
+        out.write("NumberOfEntries=" + n + "\nVersion=2\n");
+    }
+
+    // 길이를 모르면 -1(M3U 관례)
+    private static int durationSec(MetadataIndex.Entry e) {
+        return e != null && e.durationMs > 0 ? (int) Math.round(e.durationMs / 1000.0) : -1;
+    }
+
+    private static String titleOf(Path p, MetadataIndex.Entry e) {
+        String t = e != null ? e.displayTitle() : null;
+        return t != null ? t : TrackFiles.baseName(p);
+    }
+
+    private static String oneLine(String s) {
+        return s.replace('\r', ' ').replace('\n', ' ');
+    }
+
+    // 재생목록 폴더 아래면 상대 경로(구분자는 '/'), 아니면 절대 경로
+    private static String location(Path base, Path track) {
+        Path abs = track.toAbsolutePath();
+        if (base != null && abs.startsWith(base)) {
+            String rel = base.relativize(abs).toString();
+            return rel.replace(abs.getFileSystem().getSeparator(), "/");
+        }
+        return abs.toString();
+    }
+}
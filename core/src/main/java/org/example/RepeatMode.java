@@ -0,0 +1,20 @@
+package org.example;
+
+enum RepeatMode {
+    NONE, REPEAT_ALL, REPEAT_ONE;
+    public RepeatMode next() {
+        switch (this) {
+            case NONE: return REPEAT_ALL;
+            case REPEAT_ALL: return REPEAT_ONE;
+            default: return NONE;
+        }
+    }
+    public String label() {
+        switch (this) {
+            case NONE: return "일회 재생";
+            case REPEAT_ALL: return "전체 반복";
+            case REPEAT_ONE: return "한 곡 반복";
+            default: return "";
+        }
+    }
+}
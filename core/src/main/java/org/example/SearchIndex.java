@@ -0,0 +1,240 @@
+package org.example;
+
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashSet;
+import java.util.Locale;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.IntPredicate;
+
+/**
+ * 제목/아티스트/앨범/파일명/가사 토큰 → 문서 번호 목록을 들고 있는 메모리 역색인.
+ * 트랙은 {@link TrackStore}의 id로 구분한다.
+ *
+ * 질의는 공백으로 나눈 각 단어의 접두어 일치를 AND로 묶는다. 한글은
+ * <ul>
+ *   <li>초성만 입력해도 찾을 수 있게 토큰마다 초성 문자열(사랑 → ㅅㄹ)을 함께 색인하고</li>
+ *   <li>입력 중인 마지막 글자(사라, 락, 사ㄹ 등)는 조합이 끝나지 않은 것으로 보고 범위로 넓혀 찾는다.</li>
+ * </ul>
+ * 색인은 백그라운드에서 조금씩 추가된다. 문서 번호는 트랙 id 그대로이고, 트랙마다 들어간 토큰 목록을
+ * 들고 있어서 같은 트랙을 다시 넣으면 옛 토큰을 먼저 빼낸다(색인 크기는 트랙 수에 비례한다).
+ */
+final class SearchIndex {
+
+    private static final char SYLLABLE_FIRST = 0xAC00;
+    private static final char SYLLABLE_LAST = 0xD7A3;
+    private static final int JUNG_COUNT = 21;
+    private static final int JONG_COUNT = 28;
+    private static final int CHO_SPAN = JUNG_COUNT * JONG_COUNT; // 588
+    private static final String CHOSEONG = "ㄱㄲㄴㄷㄸㄹㅁㅂㅃㅅㅆㅇㅈㅉㅊㅋㅌㅍㅎ";
+    // 종성 인덱스 → 같은 자음의 초성 인덱스(겹받침은 -1)
+    private static final int[] JONG_TO_CHO = {
+            -1, 0, 1, -1, 2, -1, -1, 3, 5, -1, -1, -1, -1, -1, -1, -1,
+            6, 7, -1, 9, 10, 11, 12, 14, 15, 16, 17, 18
+    };
+
+    private static final Postings[] NO_TERMS = new Postings[0];
+
+    /** 토큰 하나의 문서 번호 목록(오름차순). 비면 사전에서 뺄 수 있게 토큰을 들고 있다. */
+    private static final class Postings {
+        final String term;
+        int[] ids = new int[2];
+        int size;
+
+        Postings(String term) {
+            this.term = term;
+        }
+
+        void add(int id) {
+            if (size == ids.length) ids = Arrays.copyOf(ids, size * 2);
+            // 처음 색인할 때는 id가 커지는 순서라 거의 항상 끝에 붙는다
+            int at = size == 0 || ids[size - 1] < id ? size : -(Arrays.binarySearch(ids, 0, size, id) + 1);
+            if (at < 0) return;   // 이미 있음
+            System.arraycopy(ids, at, ids, at + 1, size - at);
+            ids[at] = id;
+            size++;
+        }
+
+        /** 지운 뒤 비었으면 true */
+        boolean remove(int id) {
+            int at = Arrays.binarySearch(ids, 0, size, id);
+            if (at >= 0) {
+                System.arraycopy(ids, at + 1, ids, at, size - at - 1);
+                size--;
+            }
+            return size == 0;
+        }
+    }
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final TreeMap<String, Postings> dict = new TreeMap<>();
+    private Postings[][] termsOf = new Postings[1024][];   // 트랙 id → 색인된 토큰들 (null = 색인 안 됨)
+    private int tracks;
+
+    /** 트랙 하나의 텍스트 필드를 색인한다. 이미 있던 트랙이면 옛 토큰을 지우고 교체한다. */
+    void add(int track, String... fields) {
+        Set<String> tokens = new HashSet<>();
+        for (String f : fields) {
+            if (f != null && !f.isEmpty()) tokenize(f, tokens);
+        }
+        lock.writeLock().lock();
+        try {
+            if (track >= termsOf.length) termsOf = Arrays.copyOf(termsOf, Math.max(track + 1, termsOf.length * 2));
+            Postings[] old = termsOf[track];
+            if (old == null) tracks++;
+            else for (Postings p : old) if (p.remove(track)) dict.remove(p.term);
+            Postings[] terms = tokens.isEmpty() ? NO_TERMS : new Postings[tokens.size()];
+            int n = 0;
+            for (String t : tokens) {
+                Postings p = dict.computeIfAbsent(t, Postings::new);
+                p.add(track);
+                terms[n++] = p;
+            }
+            termsOf[track] = terms;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    boolean contains(int track) {
+        lock.readLock().lock();
+        try {
+            return track < termsOf.length && termsOf[track] != null;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /** 사전의 토큰 수(초성 토큰 포함) */
+    int terms() {
+        lock.readLock().lock();
+        try {
+            return dict.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    int size() {
+        return tracks;
+    }
+
+    /** 질의에 맞는 트랙 id만 통과시키는 필터. 빈 질의면 null(필터 없음). */
+    IntPredicate matcher(String query) {
+        Set<String> terms = new HashSet<>();
+        tokenizeQuery(query, terms);
+        if (terms.isEmpty()) return null;
+        BitSet hits = null;
+        lock.readLock().lock();
+        try {
+            for (String term : terms) {
+                BitSet m = matchTerm(term);
+                if (hits == null) hits = m; else hits.and(m);
+                if (hits.isEmpty()) break;
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+        // 질의 시점의 결과로 판단한다. 이후 색인이 바뀌어도 이 필터는 그대로다.
+        return hits::get;
+    }
+
+    private BitSet matchTerm(String term) {
+        BitSet out = new BitSet(termsOf.length);
+        int n = term.length();
+        char last = term.charAt(n - 1);
+        String head = term.substring(0, n - 1);
+
+        if (isSyllable(last)) {
+            int off = last - SYLLABLE_FIRST;
+            int jong = off % JONG_COUNT;
+            char base = (char) (last - jong);
+            if (jong == 0) {
+                // 받침 없는 글자: 같은 초성+중성의 모든 받침 변형까지
+                collectRange(head, base, (char) (base + JONG_COUNT - 1), out);
+            } else {
+                collectPrefix(term, out);
+                // '락'은 '라'+'ㄱ…'을 입력하는 중일 수 있다
+                int cho = JONG_TO_CHO[jong];
+                if (cho >= 0) {
+                    char lo = (char) (SYLLABLE_FIRST + cho * CHO_SPAN);
+                    collectRange(head + base, lo, (char) (lo + CHO_SPAN - 1), out);
+                }
+            }
+        } else if (isChoseong(last)) {
+            collectPrefix(term, out); // 초성 색인
+            int cho = CHOSEONG.indexOf(last);
+            char lo = (char) (SYLLABLE_FIRST + cho * CHO_SPAN);
+            collectRange(head, lo, (char) (lo + CHO_SPAN - 1), out);
+        } else {
+            collectPrefix(term, out);
+        }
+        return out;
+    }
+
+    private void collectPrefix(String prefix, BitSet out) {
+        union(dict.subMap(prefix, true, prefix + Character.MAX_VALUE, true), out);
+    }
+
+    // head 다음 글자가 [lo, hi] 범위인 모든 토큰
+    private void collectRange(String head, char lo, char hi, BitSet out) {
+        union(dict.subMap(head + lo, true, head + (char) (hi + 1), false), out);
+    }
+
+    private static void union(NavigableMap<String, Postings> range, BitSet out) {
+        for (Postings p : range.values()) {
+            for (int i = 0; i < p.size; i++) out.set(p.ids[i]);
+        }
+    }
+
+    // 글자/숫자가 이어진 구간을 소문자 토큰으로. 한글이 섞인 토큰은 초성 토큰도 추가.
+    static void tokenize(String s, Set<String> out) {
+        int n = s.length();
+        int i = 0;
+        while (i < n) {
+            while (i < n && !Character.isLetterOrDigit(s.charAt(i))) i++;
+            int start = i;
+            boolean hangul = false;
+            while (i < n && Character.isLetterOrDigit(s.charAt(i))) {
+                if (isSyllable(s.charAt(i))) hangul = true;
+                i++;
+            }
+            if (i > start) {
+                String t = s.substring(start, i).toLowerCase(Locale.ROOT);
+                out.add(t);
+                if (hangul) out.add(choseongOf(t));
+            }
+        }
+    }
+
+    // 질의 토큰화: 초성 토큰은 따로 만들지 않는다
+    private static void tokenizeQuery(String s, Set<String> out) {
+        int n = s.length();
+        int i = 0;
+        while (i < n) {
+            while (i < n && !Character.isLetterOrDigit(s.charAt(i))) i++;
+            int start = i;
+            while (i < n && Character.isLetterOrDigit(s.charAt(i))) i++;
+            if (i > start) out.add(s.substring(start, i).toLowerCase(Locale.ROOT));
+        }
+    }
+
+    static String choseongOf(String token) {
+        char[] cs = token.toCharArray();
+        for (int i = 0; i < cs.length; i++) {
+            if (isSyllable(cs[i])) cs[i] = CHOSEONG.charAt((cs[i] - SYLLABLE_FIRST) / CHO_SPAN);
+        }
+        return new String(cs);
+    }
+
+    private static boolean isSyllable(char c) {
+        return c >= SYLLABLE_FIRST && c <= SYLLABLE_LAST;
+    }
+
+    private static boolean isChoseong(char c) {
+        return CHOSEONG.indexOf(c) >= 0;
+    }
+}
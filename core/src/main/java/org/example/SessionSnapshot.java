@@ -0,0 +1,169 @@
+package org.example;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 마지막 세션(폴더 또는 재생목록 파일, 재생목록 순서, 현재 곡, 위치, 반복 모드, 볼륨, 정렬 기준)의 스냅샷.
+ * 시작할 때 파일을 한 번에 읽고 바로 닫는다. 매핑하지 않는 것은 윈도우에서 매핑이 남아 있는 파일을
+ * 다음 저장 때 교체할 수 없기 때문이다.
+ *
+ * 파일 형식: magic, version, currentIndex, positionMs, repeatMode, volume, sortKey(v2부터, -1은 정렬 안 함),
+ * fromPlaylist(v3부터), root,
+ * count, 경로별 끝 오프셋 int[count], 이후 루트 기준 상대 경로(UTF-8)를 이어 붙인 영역.
+ * 앞쪽 고정 위치의 재생 상태(currentIndex, positionMs, repeatMode, volume)는 목록을 다시 쓰지 않고
+ * 제자리에서 고칠 수 있다({@link #saveState}).
+ */
+final class SessionSnapshot {
+
+    private static final int MAGIC = 0x4D503353; // "MP3S"
+    private static final int VERSION = 3;
+    private static final int STATE_OFFSET = 8;                  // magic, version 다음
+    private static final int STATE_BYTES = 4 + 8 + 1 + 8;      // currentIndex, positionMs, repeatMode, volume
+
+    final Path root;
+    final int currentIndex;
+    final long positionMs;
+    final RepeatMode repeatMode;
+    final double volume;
+    final TrackStore.SortKey sortKey;     // null이면 불러온 순서 그대로
+    /** 폴더를 훑은 것이 아니라 재생목록 파일에서 불러온 세션(root는 그 파일의 폴더) */
+    final boolean fromPlaylist;
+    private final List<Path> tracks;
+
+    SessionSnapshot(Path root, List<Path> tracks, int currentIndex, long positionMs,
+                    RepeatMode repeatMode, double volume, TrackStore.SortKey sortKey, boolean fromPlaylist) {
+        this.root = root;
+        this.tracks = tracks;
+        this.currentIndex = currentIndex;
+        this.positionMs = positionMs;
+        this.repeatMode = repeatMode;
+        this.volume = volume;
+        this.sortKey = sortKey;
+        this.fromPlaylist = fromPlaylist;
+    }
+
+    static Path defaultFile() {
+        return AppDirs.configDir().resolve("session.bin");
+    }
+
+    List<Path> tracks() {
+        return tracks;
+    }
+
+    /** 파일이 없거나 형식이 맞지 않으면 null. */
+    static SessionSnapshot load(Path file) {
+        if (!Files.isRegularFile(file)) return null;
+        try {
+            ByteBuffer buf = ByteBuffer.wrap(Files.readAllBytes(file));
+            if (buf.getInt() != MAGIC) return null;
+            int version = buf.getInt();
+            if (version < 1 || version > VERSION) return null;
+            int currentIndex = buf.getInt();
+            long positionMs = buf.getLong();
+            int mode = buf.get();
+            double volume = buf.getDouble();
+            int sort = version >= 2 ? buf.get() : 0;   // v1은 경로순만 있었다
+            boolean fromPlaylist = version >= 3 && buf.get() != 0;
+            Path root = Paths.get(readString(buf, buf.getInt()));
+            int count = buf.getInt();
+            if (count < 0 || (long) count * 4 > buf.remaining()) return null;
+            ByteBuffer ends = buf.slice();
+            ends.limit(count * 4);
+            buf.position(buf.position() + count * 4);
+            ByteBuffer names = buf.slice();
+            if (count > 0 && ends.getInt((count - 1) * 4) != names.remaining()) return null;
+            List<Path> tracks = new ArrayList<>(count);
+            byte[] b = new byte[256];
+            int start = 0;
+            for (int i = 0; i < count; i++) {
+                int end = ends.getInt(i * 4);
+                int len = end - start;
+                if (len > b.length) b = new byte[Math.max(len, b.length * 2)];
+                names.get(start, b, 0, len);
+                // 절대 경로로 저장된 항목은 resolve가 그대로 돌려준다
+                tracks.add(root.resolve(new String(b, 0, len, StandardCharsets.UTF_8)));
+                start = end;
+            }
+
+            RepeatMode[] modes = RepeatMode.values();
+            TrackStore.SortKey[] keys = TrackStore.SortKey.values();
+            return new SessionSnapshot(root, tracks,
+                    currentIndex, positionMs,
+                    mode >= 0 && mode < modes.length ? modes[mode] : RepeatMode.NONE, volume,
+                    sort < 0 ? null : sort < keys.length ? keys[sort] : TrackStore.SortKey.PATH, fromPlaylist);
+        } catch (IOException | BufferUnderflowException | IndexOutOfBoundsException | IllegalArgumentException ex) {
+            return null;
+        }
+    }
+
+    /** 임시 파일에 쓴 뒤 교체해서, 쓰는 도중 종료돼도 이전 스냅샷이 남는다. */
+    void save(Path file) throws IOException {
+        Files.createDirectories(file.getParent());
+        ByteArrayOutputStream names = new ByteArrayOutputStream(tracks.size() * 48);
+        int[] ends = new int[tracks.size()];
+        for (int i = 0; i < ends.length; i++) {
+            Path p = tracks.get(i);
+            String rel = p.startsWith(root) ? root.relativize(p).toString() : p.toString();
+            names.write(rel.getBytes(StandardCharsets.UTF_8));
+            ends[i] = names.size();
+        }
+        Path tmp = file.resolveSibling(file.getFileName() + ".tmp");
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(tmp), 1 << 16))) {
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeInt(currentIndex);
+            out.writeLong(positionMs);
+            out.writeByte(repeatMode.ordinal());
+            out.writeDouble(volume);
+            out.writeByte(sortKey != null ? sortKey.ordinal() : -1);
+            out.writeByte(fromPlaylist ? 1 : 0);
+            byte[] r = root.toString().getBytes(StandardCharsets.UTF_8);
+            out.writeInt(r.length);
+            out.write(r);
+            out.writeInt(ends.length);
+            for (int e : ends) out.writeInt(e);
+            names.writeTo(out);
+        }
+        Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /**
+     * 이미 저장된 스냅샷의 재생 상태만 제자리에서 고친다. 재생목록이 그대로일 때 주기 저장용.
+     * 파일이 없거나 지금 형식이 아니면 false(전체를 다시 써야 한다).
+     */
+    static boolean saveState(Path file, int currentIndex, long positionMs, RepeatMode repeatMode, double volume)
+            throws IOException {
+        if (!Files.isRegularFile(file)) return false;
+        try (FileChannel ch = FileChannel.open(file, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            ByteBuffer head = ByteBuffer.allocate(STATE_OFFSET);
+            while (head.hasRemaining() && ch.read(head, head.position()) > 0) { }
+            head.flip();
+            if (head.remaining() < STATE_OFFSET || head.getInt() != MAGIC || head.getInt() != VERSION) return false;
+            if (ch.size() < STATE_OFFSET + STATE_BYTES) return false;
+            ByteBuffer state = ByteBuffer.allocate(STATE_BYTES);
+            state.putInt(currentIndex).putLong(positionMs).put((byte) repeatMode.ordinal()).putDouble(volume).flip();
+            while (state.hasRemaining()) ch.write(state, STATE_OFFSET + state.position());
+        }
+        return true;
+    }
+
+    private static String readString(ByteBuffer buf, int len) {
+        byte[] b = new byte[len];
+        buf.get(b);
+        return new String(b, StandardCharsets.UTF_8);
+    }
+}
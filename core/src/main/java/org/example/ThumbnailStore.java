@@ -0,0 +1,171 @@
+package org.example;
+
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReadParam;
+import javax.imageio.ImageReader;
+import javax.imageio.stream.ImageInputStream;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Iterator;
+
+/**
+ * 아트워크 축소판 디스크 캐시. 이미지 내용 해시를 파일 이름으로 써서
+ * 같은 앨범의 트랙들이 한 장을 공유한다.
+ *
+ * 파일 형식: width, height, 이후 ARGB 픽셀(int, 리틀 엔디언). 디코딩 없이 그대로 읽는다.
+ */
+final class ThumbnailStore {
+
+    /** 축소판 긴 변(px) */
+    static final int SIZE = 96;
+
+    static final class Thumbnail {
+        final int width;
+        final int height;
+        final int[] argb;
+
+        Thumbnail(int width, int height, int[] argb) {
+            this.width = width;
+            this.height = height;
+            this.argb = argb;
+        }
+
+        long bytes() {
+            return (long) argb.length * 4;
+        }
+    }
+
+    private final Path dir;
+
+    ThumbnailStore(Path dir) {
+        this.dir = dir;
+    }
+
+    static ThumbnailStore openDefault() {
+        return new ThumbnailStore(AppDirs.configDir().resolve("thumbs"));
+    }
+
+    /** 아트워크 바이트의 64비트 해시. 항상 양수라 0(없음)/-1(모름)과 겹치지 않는다. */
+    static long contentHash(byte[] data) {
+        try {
+            byte[] d = MessageDigest.getInstance("SHA-1").digest(data);
+            long h = 0;
+            for (int i = 0; i < 8; i++) h = (h << 8) | (d[i] & 0xFF);
+            h &= Long.MAX_VALUE;
+            return h == 0 ? 1 : h;
+        } catch (NoSuchAlgorithmException ex) {
+            throw new IllegalStateException(ex);
+        }
+    }
+
+    /** 디스크에 있으면 읽어 오고, 없으면 null. */
+    Thumbnail load(long hash) {
+        Path f = fileOf(hash);
+        try (FileChannel ch = FileChannel.open(f, StandardOpenOption.READ)) {
+            long len = ch.size();
+            if (len < 8 || len > Integer.MAX_VALUE) return null;
+            ByteBuffer buf = ByteBuffer.allocate((int) len).order(ByteOrder.LITTLE_ENDIAN);
+            while (buf.hasRemaining() && ch.read(buf) >= 0) {}
+            buf.flip();
+            int w = buf.getInt();
+            int h = buf.getInt();
+            if (w <= 0 || h <= 0 || (long) w * h * 4 != buf.remaining()) return null;
+            int[] px = new int[w * h];
+            buf.asIntBuffer().get(px);
+            return new Thumbnail(w, h, px);
+        } catch (IOException ex) {
+            return null;
+        }
+    }
+
+    /** 캐시에 없으면 원본 이미지를 축소해 저장한다. 디코딩할 수 없는 이미지면 null. */
+    Thumbnail getOrCreate(byte[] image) {
+        long hash = contentHash(image);
+        Thumbnail t = load(hash);
+        if (t != null) return t;
+        t = downscale(image, SIZE);
+        if (t != null) store(hash, t);
+        return t;
+    }
+
+    private void store(long hash, Thumbnail t) {
+        Path f = fileOf(hash);
+        try {
+            Files.createDirectories(f.getParent());
+            Path tmp = f.resolveSibling(f.getFileName() + ".tmp");
+            ByteBuffer buf = ByteBuffer.allocate(8 + t.argb.length * 4).order(ByteOrder.LITTLE_ENDIAN);
+            buf.putInt(t.width).putInt(t.height);
+            buf.asIntBuffer().put(t.argb);
+            buf.rewind();
+            try (FileChannel ch = FileChannel.open(tmp, StandardOpenOption.CREATE,
+                    StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+                while (buf.hasRemaining()) ch.write(buf);
+            }
+            Files.move(tmp, f, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException ignored) {
+            // 캐시일 뿐이라 다음에 다시 만든다
+        }
+    }
+
+    // 앞 두 글자로 하위 폴더를 나눠 한 폴더에 파일이 몰리지 않게 한다
+    private Path fileOf(long hash) {
+        String hex = String.format("%016x", hash);
+        return dir.resolve(hex.substring(0, 2)).resolve(hex + ".px");
+    }
+
+    /**
+     * 긴 변이 max 이하가 되도록 줄인다. 큰 JPEG는 디코더의 서브샘플링으로
+     * 필요한 해상도의 두 배 정도만 디코딩해서 원본 크기의 픽셀 배열을 만들지 않는다.
+     */
+    static Thumbnail downscale(byte[] image, int max) {
+        BufferedImage src;
+        try (ImageInputStream in = ImageIO.createImageInputStream(new ByteArrayInputStream(image))) {
+            if (in == null) return null;
+            Iterator<ImageReader> readers = ImageIO.getImageReaders(in);
+            if (!readers.hasNext()) return null;
+            ImageReader reader = readers.next();
+            try {
+                reader.setInput(in, true, true);
+                int w = reader.getWidth(0);
+                int h = reader.getHeight(0);
+                int step = Math.max(1, Math.min(w, h) / (max * 2));
+                ImageReadParam param = reader.getDefaultReadParam();
+                param.setSourceSubsampling(step, step, 0, 0);
+                src = reader.read(0, param);
+            } finally {
+                reader.dispose();
+            }
+        } catch (IOException | RuntimeException ex) {
+            return null;
+        }
+        if (src == null) return null;
+
+        int w = src.getWidth();
+        int h = src.getHeight();
+        double scale = Math.min(1.0, (double) max / Math.max(w, h));
+        int tw = Math.max(1, (int) Math.round(w * scale));
+        int th = Math.max(1, (int) Math.round(h * scale));
+        BufferedImage dst = new BufferedImage(tw, th, BufferedImage.TYPE_INT_ARGB);
+        Graphics2D g = dst.createGraphics();
+        try {
+            g.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+            g.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+            g.drawImage(src, 0, 0, tw, th, null);
+        } finally {
+            g.dispose();
+        }
+        return new Thumbnail(tw, th, dst.getRGB(0, 0, tw, th, null, 0, tw));
+    }
+}
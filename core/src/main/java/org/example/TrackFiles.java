@@ -0,0 +1,33 @@
+package org.example;
+
+import java.nio.file.Path;
+
+/** 트랙 파일 경로 관련 작은 도우미들. */
+final class TrackFiles {
+
+    private TrackFiles() {}
+
+    /** 등록된 오디오 형식의 확장자인 파일(실제 형식은 {@link AudioFormats#probe}로 따로 확인) */
+    static boolean isTrackFile(Path p) {
+        return AudioFormats.hasAudioExtension(p);
+    }
+
+    static Path replaceExt(Path p, String newExt) {
+        String name = p.getFileName().toString();
+        int dot = name.lastIndexOf('.');
+        String base = dot > 0 ? name.substring(0, dot) : name;
+        return p.getParent().resolve(base + newExt);
+    }
+
+    /** 같은 폴더, 같은 이름의 .lrc 파일 */
+    static Path sidecarLrc(Path track) {
+        return replaceExt(track, ".lrc");
+    }
+
+    /** 확장자를 뺀 파일명 */
+    static String baseName(Path track) {
+        String name = track.getFileName().toString();
+        int dot = name.lastIndexOf('.');
+        return (dot > 0) ? name.substring(0, dot) : name;
+    }
+}
@@ -0,0 +1,108 @@
+package org.example;
+
+import java.nio.file.Path;
+import java.util.Optional;
+
+import org.jaudiotagger.audio.AudioFile;
+import org.jaudiotagger.audio.AudioFileIO;
+import org.jaudiotagger.audio.AudioHeader;
+import org.jaudiotagger.tag.FieldKey;
+import org.jaudiotagger.tag.Tag;
+import org.jaudiotagger.tag.images.Artwork;
+
+/**
+ * 한 번의 jaudiotagger 파싱으로 얻은 트랙 정보.
+ * 제목/아티스트/가사/아트워크를 모두 여기서 꺼내 쓰고, 같은 파일을 두 번 읽지 않는다.
+ */
+final class TrackMetadata {
+
+    final Path path;
+    final String title;
+    final String artist;
+    final String album;
+    final int durationMs;
+    final String lyrics;          // 내장 가사, 없으면 빈 문자열
+    final byte[] artwork;         // 첫 번째 내장 이미지, 없으면 null
+    final String artworkMime;
+    final float replayGainDb;     // 태그의 트랙 게인, 없으면 NaN
+
+    private TrackMetadata(Path path, String title, String artist, String album, int durationMs,
+                          String lyrics, byte[] artwork, String artworkMime, float replayGainDb) {
+        this.path = path;
+        this.title = title;
+        this.artist = artist;
+        this.album = album;
+        this.durationMs = durationMs;
+        this.lyrics = lyrics;
+        this.artwork = artwork;
+        this.artworkMime = artworkMime;
+        this.replayGainDb = replayGainDb;
+    }
+
+    static TrackMetadata read(Path track) {
+        PlayerEvents.TagRead event = new PlayerEvents.TagRead();
+        event.begin();
+        long t0 = System.nanoTime();
+        TrackMetadata meta = readTags(track);
+        Metrics.TAG_READ.record(System.nanoTime() - t0, track);
+        event.end();
+        if (event.shouldCommit()) {
+            event.path = track.toString();
+            event.size = track.toFile().length();
+            event.commit();
+        }
+        return meta;
+    }
+
+    private static TrackMetadata readTags(Path track) {
+        String title = "", artist = "", album = "", lyrics = "";
+        int durationMs = 0;
+        byte[] art = null;
+        String mime = null;
+        float gain = Float.NaN;
+        try {
+            AudioFile af = AudioFileIO.read(track.toFile());
+            AudioHeader header = af.getAudioHeader();
+            if (header != null) durationMs = (int) Math.round(header.getPreciseTrackLength() * 1000);
+            Tag tag = af.getTag();
+            if (tag != null) {
+                title = field(tag, FieldKey.TITLE);
+                artist = field(tag, FieldKey.ARTIST);
+                album = field(tag, FieldKey.ALBUM);
+                lyrics = field(tag, FieldKey.LYRICS);
+                Artwork aw = tag.getFirstArtwork();
+                if (aw != null && !aw.isLinked()) {
+                    art = aw.getBinaryData();
+                    mime = aw.getMimeType();
+                }
+                gain = LoudnessAnalyzer.readReplayGain(tag);
+            }
+        } catch (Exception ignored) {}
+        return new TrackMetadata(track, title, artist, album, durationMs, lyrics, art, mime, gain);
+    }
+
+    boolean hasLyrics() {
+        return !lyrics.isBlank();
+    }
+
+    /** 캐시 용량 계산용 대략적인 크기(바이트). */
+    long weight() {
+        long w = 64 + 2L * (title.length() + artist.length() + album.length() + lyrics.length());
+        return artwork != null ? w + artwork.length : w;
+    }
+
+    // ARTIST - TITLE. 태그가 없으면 확장자를 뺀 파일명.
+    String displayTitle() {
+        if (!title.isEmpty() && !artist.isEmpty()) return artist + " - " + title;
+        if (!title.isEmpty()) return title;
+        return TrackFiles.baseName(path);
+    }
+
+    private static String field(Tag tag, FieldKey key) {
+        try {
+            return Optional.ofNullable(tag.getFirst(key)).orElse("").trim();
+        } catch (Exception ex) {
+            return "";
+        }
+    }
+}
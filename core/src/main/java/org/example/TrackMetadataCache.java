@@ -0,0 +1,57 @@
+package org.example;
+
+import java.nio.file.Path;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * 최근에 쓴 {@link TrackMetadata}를 개수와 총 크기 두 기준으로 제한해 보관하는 LRU.
+ * 아트워크가 큰 파일이 몰려도 메모리가 무한정 늘지 않는다.
+ */
+final class TrackMetadataCache {
+
+    private final int maxEntries;
+    private final long maxBytes;
+    private final LinkedHashMap<Path, TrackMetadata> map = new LinkedHashMap<>(64, 0.75f, true);
+    private long bytes;
+
+    TrackMetadataCache(int maxEntries, long maxBytes) {
+        this.maxEntries = maxEntries;
+        this.maxBytes = maxBytes;
+    }
+
+    synchronized TrackMetadata get(Path track) {
+        return map.get(track);
+    }
+
+    /** 캐시에 있으면 그대로, 없으면 호출한 스레드에서 한 번 읽어 넣는다. */
+    TrackMetadata getOrRead(Path track) {
+        TrackMetadata m = get(track);
+        if (m != null) return m;
+        m = TrackMetadata.read(track);
+        put(m);
+        return m;
+    }
+
+    synchronized void put(TrackMetadata m) {
+        TrackMetadata old = map.put(m.path, m);
+        if (old != null) bytes -= old.weight();
+        bytes += m.weight();
+        evict();
+    }
+
+    synchronized void invalidate(Path track) {
+        TrackMetadata old = map.remove(track);
+        if (old != null) bytes -= old.weight();
+    }
+
+    private void evict() {
+        Iterator<Map.Entry<Path, TrackMetadata>> it = map.entrySet().iterator();
+        // 방금 넣은 항목 하나는 남겨 둔다
+        while ((map.size() > maxEntries || bytes > maxBytes) && map.size() > 1 && it.hasNext()) {
+            bytes -= it.next().getValue().weight();
+            it.remove();
+        }
+    }
+}
@@ -0,0 +1,306 @@
+package org.example;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.RandomAccess;
+import java.util.function.IntFunction;
+
+/**
+ * 트랙을 int id로 들고 있는 열(column) 저장소. Path 객체 대신
+ * 중복 없는 폴더 목록 + 폴더 번호 + UTF-8 파일명 덩어리 + 문자열 풀 번호(제목/아티스트)만 둔다.
+ * 트랙당 수십 바이트라 수십만 곡 재생목록도 가볍고, 정렬은 이 배열들 위에서 한다.
+ *
+ * 추가와 태그 갱신은 FX 스레드에서만 한다. 다른 스레드에는 {@link #paths(int[])}로 만든 고정 뷰를 넘긴다.
+ * 한 번 받은 id는 세션 동안 바뀌지 않는다(폴더를 바꿔도 지우지 않는다).
+ */
+final class TrackStore {
+
+    enum SortKey {
+        PATH("경로순"), TITLE("제목순"), ARTIST("아티스트순");
+
+        private final String label;
+
+        SortKey(String label) {
+            this.label = label;
+        }
+
+        @Override
+        public String toString() {
+            return label;
+        }
+    }
+
+    private static final int TAGGED = 1;
+    private static final int UNPLAYABLE = 2;
+
+    private final List<Path> dirs = new ArrayList<>();
+    private final Map<Path, Integer> dirIds = new HashMap<>();
+    private final List<String> strings = new ArrayList<>(List.of(""));   // 0번은 '없음'
+    private final Map<String, Integer> stringIds = new HashMap<>();
+
+    private int count;
+    private int[] dir = new int[1024];
+    private int[] nameEnd = new int[1024];      // i번째 이름은 names[nameEnd[i-1], nameEnd[i])
+    private byte[] names = new byte[32 * 1024];
+    private int[] title = new int[1024];        // 문자열 풀 번호
+    private int[] artist = new int[1024];
+    private int[] display = new int[1024];      // "아티스트 - 제목"
+    private long[] artHash = new long[1024];
+    private byte[] flags = new byte[1024];
+    private int[] slots = new int[2048];        // 경로 → id 해시 표(id + 1, 0은 빈 칸)
+
+    int size() {
+        return count;
+    }
+
+    /** 처음 보는 경로면 새 id를, 아니면 기존 id를 돌려준다. */
+    int intern(Path track) {
+        int d = dirIds.computeIfAbsent(track.getParent(), p -> {
+            dirs.add(p);
+            return dirs.size() - 1;
+        });
+        byte[] name = track.getFileName().toString().getBytes(StandardCharsets.UTF_8);
+        int slot = findSlot(d, name);
+        if (slots[slot] != 0) return slots[slot] - 1;
+
+        int id = count;
+        ensureCapacity(id + 1, name.length);
+        int start = id == 0 ? 0 : nameEnd[id - 1];
+        System.arraycopy(name, 0, names, start, name.length);
+        nameEnd[id] = start + name.length;
+        dir[id] = d;
+        count++;
+        slots[slot] = id + 1;
+        if (count * 2 > slots.length) rehash();
+        return id;
+    }
+
+    /** 등록된 경로의 id, 없으면 -1. */
+    int find(Path track) {
+        Path parent = track.getParent();
+        Integer d = parent != null ? dirIds.get(parent) : null;
+        if (d == null) return -1;
+        byte[] name = track.getFileName().toString().getBytes(StandardCharsets.UTF_8);
+        int slot = findSlot(d, name);
+        return slots[slot] - 1;
+    }
+
+    Path path(int id) {
+        return dirs.get(dir[id]).resolve(fileName(id));
+    }
+
+    String fileName(int id) {
+        int start = id == 0 ? 0 : nameEnd[id - 1];
+        return new String(names, start, nameEnd[id] - start, StandardCharsets.UTF_8);
+    }
+
+    /** 폴더 자체가 지워졌을 때: 그 아래(하위 폴더 포함)에 있는 트랙인지 */
+    boolean isUnder(int id, Path root) {
+        return dirs.get(dir[id]).startsWith(root);
+    }
+
+    /** 인덱싱이 끝난 트랙의 태그 열을 채운다. */
+    void setTags(int id, String titleText, String artistText, long art, boolean unplayable) {
+        title[id] = pool(titleText);
+        artist[id] = pool(artistText);
+        String shown = !titleText.isEmpty() && !artistText.isEmpty() ? artistText + " - " + titleText : titleText;
+        display[id] = pool(shown);
+        artHash[id] = art;
+        flags[id] = (byte) (TAGGED | (unplayable ? UNPLAYABLE : 0));
+    }
+
+    boolean isTagged(int id) {
+        return (flags[id] & TAGGED) != 0;
+    }
+
+    /** 인덱싱 때 재생할 수 없다고 판별된 트랙(형식 또는 확장자 기준) */
+    boolean isUnplayable(int id) {
+        return (flags[id] & UNPLAYABLE) != 0;
+    }
+
+    long artHash(int id) {
+        return artHash[id];
+    }
+
+    /** 목록에 보일 이름: 태그 제목(아티스트 - 제목), 없으면 확장자를 뺀 파일명 */
+    String displayTitle(int id) {
+        if (display[id] != 0) return strings.get(display[id]);
+        String name = fileName(id);
+        int dot = name.lastIndexOf('.');
+        return dot > 0 ? name.substring(0, dot) : name;
+    }
+
+    /**
+     * 다른 스레드에 넘길 경로 목록. 지금의 열 배열을 잡아 두고 꺼낼 때 Path를 만든다.
+     * 기존 id의 칸은 다시 쓰지 않으므로 이후 추가가 있어도 안전하다.
+     */
+    List<Path> paths(int[] ids) {
+        List<Path> dirSnapshot = new ArrayList<>(dirs);
+        int[] dirCol = dir, ends = nameEnd;
+        byte[] blob = names;
+        final class View extends AbstractList<Path> implements RandomAccess {
+            @Override
+            public Path get(int i) {
+                int id = ids[i];
+                int start = id == 0 ? 0 : ends[id - 1];
+                return dirSnapshot.get(dirCol[id]).resolve(new String(blob, start, ends[id] - start, StandardCharsets.UTF_8));
+            }
+
+            @Override
+            public int size() {
+                return ids.length;
+            }
+        }
+        return new View();
+    }
+
+    /** ids를 key 순서로 정렬한 새 배열. 같은 값끼리는 경로 순. */
+    int[] sorted(int[] ids, SortKey key) {
+        int n = ids.length;
+        // Path는 비교에 처음 쓰일 때 한 번만 만든다(태그 정렬은 같은 값일 때만 필요)
+        Path[] paths = new Path[n];
+        IntFunction<Path> pathAt = i -> {
+            Path p = paths[i];
+            if (p == null) paths[i] = p = path(ids[i]);
+            return p;
+        };
+        IntComparator byPath = (a, b) -> pathAt.apply(a).compareTo(pathAt.apply(b));
+        IntComparator cmp;
+        if (key == SortKey.PATH) {
+            cmp = byPath;
+        } else {
+            // 풀 번호 → 순위를 한 번만 계산해 두면 트랙끼리 비교는 int 비교
+            int[] rank = poolRanks();
+            int[] primary = new int[n];
+            int[] secondary = new int[n];
+            for (int i = 0; i < n; i++) {
+                int id = ids[i];
+                if (key == SortKey.TITLE) {
+                    primary[i] = isTagged(id) && title[id] != 0 ? rank[title[id]] : Integer.MAX_VALUE;
+                } else {
+                    primary[i] = isTagged(id) && artist[id] != 0 ? rank[artist[id]] : Integer.MAX_VALUE;
+                    secondary[i] = title[id] != 0 ? rank[title[id]] : Integer.MAX_VALUE;
+                }
+            }
+            // 태그가 없는 곡은 뒤로, 그 안에서는 경로 순
+            cmp = (a, b) -> {
+                int c = Integer.compare(primary[a], primary[b]);
+                if (c == 0) c = Integer.compare(secondary[a], secondary[b]);
+                return c != 0 ? c : byPath.compare(a, b);
+            };
+        }
+        int[] order = new int[n];
+        for (int i = 0; i < n; i++) order[i] = i;
+        mergeSort(order, new int[n], 0, n, cmp);
+        int[] out = new int[n];
+        for (int i = 0; i < n; i++) out[i] = ids[order[i]];
+        return out;
+    }
+
+    private int[] poolRanks() {
+        int m = strings.size();
+        Integer[] byText = new Integer[m];
+        for (int i = 0; i < m; i++) byText[i] = i;
+        Arrays.sort(byText, (a, b) -> String.CASE_INSENSITIVE_ORDER.compare(strings.get(a), strings.get(b)));
+        int[] rank = new int[m];
+        for (int r = 0; r < m; r++) rank[byText[r]] = r;
+        return rank;
+    }
+
+    private int pool(String s) {
+        if (s == null || s.isEmpty()) return 0;
+        return stringIds.computeIfAbsent(s, k -> {
+            strings.add(k);
+            return strings.size() - 1;
+        });
+    }
+
+    // ---- 경로 해시 표 ----
+
+    private int findSlot(int d, byte[] name) {
+        int mask = slots.length - 1;
+        int i = hash(d, name, 0, name.length) & mask;
+        while (slots[i] != 0) {
+            int id = slots[i] - 1;
+            if (dir[id] == d && nameEquals(id, name)) return i;
+            i = (i + 1) & mask;
+        }
+        return i;
+    }
+
+    private boolean nameEquals(int id, byte[] name) {
+        int start = id == 0 ? 0 : nameEnd[id - 1];
+        return Arrays.equals(names, start, nameEnd[id], name, 0, name.length);
+    }
+
+    private static int hash(int d, byte[] b, int from, int to) {
+        int h = d * 0x9E3779B9;
+        for (int i = from; i < to; i++) h = 31 * h + b[i];
+        return h ^ (h >>> 16);
+    }
+
+    private void rehash() {
+        int[] grown = new int[slots.length * 2];
+        int mask = grown.length - 1;
+        for (int id = 0; id < count; id++) {
+            int start = id == 0 ? 0 : nameEnd[id - 1];
+            int i = hash(dir[id], names, start, nameEnd[id]) & mask;
+            while (grown[i] != 0) i = (i + 1) & mask;
+            grown[i] = id + 1;
+        }
+        slots = grown;
+    }
+
+    private void ensureCapacity(int tracks, int nameBytes) {
+        if (tracks > dir.length) {
+            int n = Math.max(tracks, dir.length * 2);
+            dir = Arrays.copyOf(dir, n);
+            nameEnd = Arrays.copyOf(nameEnd, n);
+            title = Arrays.copyOf(title, n);
+            artist = Arrays.copyOf(artist, n);
+            display = Arrays.copyOf(display, n);
+            artHash = Arrays.copyOf(artHash, n);
+            flags = Arrays.copyOf(flags, n);
+        }
+        int used = count == 0 ? 0 : nameEnd[count - 1];
+        if (used + nameBytes > names.length) {
+            names = Arrays.copyOf(names, Math.max(used + nameBytes, names.length * 2));
+        }
+    }
+
+    // ---- int 배열 안정 정렬 ----
+
+    private interface IntComparator {
+        int compare(int a, int b);
+    }
+
+    private static void mergeSort(int[] a, int[] tmp, int from, int to, IntComparator cmp) {
+        if (to - from < 16) {
+            for (int i = from + 1; i < to; i++) {
+                int v = a[i];
+                int j = i - 1;
+                while (j >= from && cmp.compare(a[j], v) > 0) {
+                    a[j + 1] = a[j];
+                    j--;
+                }
+                a[j + 1] = v;
+            }
+            return;
+        }
+        int mid = (from + to) >>> 1;
+        mergeSort(a, tmp, from, mid, cmp);
+        mergeSort(a, tmp, mid, to, cmp);
+        if (cmp.compare(a[mid - 1], a[mid]) <= 0) return;
+        System.arraycopy(a, from, tmp, from, to - from);
+        int i = from, j = mid, k = from;
+        while (i < mid && j < to) a[k++] = cmp.compare(tmp[j], tmp[i]) < 0 ? tmp[j++] : tmp[i++];
+        while (i < mid) a[k++] = tmp[i++];
+        while (j < to) a[k++] = tmp[j++];
+    }
+}
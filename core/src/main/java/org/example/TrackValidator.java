@@ -0,0 +1,112 @@
+package org.example;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * 재생 위치 앞쪽 트랙을 미리 점검한다: 파일을 끝까지 읽을 수 있는지, 형식 헤더가 맞는지,
+ * 길이가 말이 되는지. 동시에 도는 점검 수는 스레드 수로 제한하고, 한 번 본 파일은 다시 보지 않는다.
+ * 문제가 있는 파일만 리스너로 알린다(워커 스레드에서 호출).
+ *
+ * 손상의 직접 증거가 있을 때만 알린다. 태그 라이브러리가 길이를 못 읽었거나 머리 바이트로 형식을
+ * 알아내지 못한 것만으로는(특이한 VBR 헤더, 앞에 쓰레기가 붙은 MP3, 일부 M4A 변형 등 재생은 되는 파일) 알리지 않는다.
+ * 그런 파일이 정말 재생되지 않으면 재생기 오류로 걸러진다.
+ */
+final class TrackValidator {
+
+    interface Listener {
+        void onProblem(Path track, String reason);
+    }
+
+    private static final long MIN_BYTES = 128;
+    private static final int MAX_DURATION_MS = 24 * 60 * 60 * 1000;
+    /** 크기/길이로 본 평균 비트레이트가 이보다 낮으면 잘린 파일로 본다 */
+    private static final long MIN_BITS_PER_SEC = 8_000;
+
+    private final MetadataIndex index;
+    private final Listener listener;
+    private final ExecutorService executor;
+    private final Set<Path> seen = ConcurrentHashMap.newKeySet();
+
+    TrackValidator(MetadataIndex index, int parallelism, Listener listener) {
+        this.index = index;
+        this.listener = listener;
+        this.executor = Executors.newFixedThreadPool(parallelism, r -> {
+            Thread t = new Thread(r, "track-validator");
+            t.setDaemon(true);
+            t.setPriority(Thread.NORM_PRIORITY - 1);
+            return t;
+        });
+    }
+
+    /** 아직 안 본 트랙만 점검 대기열에 넣는다. */
+    void submit(List<Path> tracks) {
+        for (Path p : tracks) {
+            if (!seen.add(p)) continue;
+            executor.execute(() -> {
+                String problem = check(p);
+                if (problem != null) listener.onProblem(p, problem);
+            });
+        }
+    }
+
+    /** 파일이 바뀌었으면 다음 submit 때 다시 본다. */
+    void forget(Path track) {
+        seen.remove(track);
+    }
+
+    void shutdown() {
+        executor.shutdownNow();
+    }
+
+    /** 문제가 없으면 null, 있으면 사용자에게 보일 이유. */
+    String check(Path track) {
+        long size;
+        try {
+            size = Files.size(track);
+        } catch (IOException ex) {
+            return "파일을 열 수 없음";
+        }
+        if (size < MIN_BYTES) return "파일이 너무 작음";
+        if (!readableAtEnd(track, size)) return "파일 끝을 읽을 수 없음";
+
+        AudioFormats.Format format = AudioFormats.probe(track);
+        if (format == null) return null;   // 형식을 모름: 손상 증거가 아니므로 재생기에 맡긴다
+        if (!AudioFormats.isPlayable(track, format)) {
+            return format.playable
+                    ? format.name + " 파일인데 확장자가 ." + AudioFormats.extensionOf(track)
+                    : "재생할 수 없는 형식: " + format.name;
+        }
+
+        MetadataIndex.Entry e = index.getOrRead(track);
+        if (e == null) return "파일을 열 수 없음";
+        if (e.durationMs <= 0) return null;   // 태그 파싱만 실패: 재생기에 맡긴다
+        if (e.durationMs > MAX_DURATION_MS) return "길이가 비정상적임";
+        if (size * 8_000L / e.durationMs < MIN_BITS_PER_SEC) return "헤더 길이에 비해 파일이 짧음(잘린 파일)";
+        return null;
+    }
+
+    // 마지막 블록까지 실제로 읽히는지(불량 섹터, 끊긴 네트워크 드라이브)
+    private static boolean readableAtEnd(Path track, long size) {
+        try (FileChannel ch = FileChannel.open(track, StandardOpenOption.READ)) {
+            ByteBuffer buf = ByteBuffer.allocate((int) Math.min(4096, size));
+            long pos = size - buf.capacity();
+            while (buf.hasRemaining()) {
+                int n = ch.read(buf, pos + buf.position());
+                if (n < 0) return false;
+            }
+            return true;
+        } catch (IOException ex) {
+            return false;
+        }
+    }
+}
@@ -0,0 +1,117 @@
+package org.example;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class AudioFormatsTest {
+
+    @TempDir
+    Path dir;
+
+    // MPEG-1 Layer III, 128 kbps, 44.1 kHz, 패딩 없음 → 417바이트 프레임
+    private static byte[] mpegFrames(int count) {
+        byte[] out = new byte[417 * count];
+        for (int i = 0; i < count; i++) {
+            int at = i * 417;
+            out[at] = (byte) 0xFF;
+            out[at + 1] = (byte) 0xFB;
+            out[at + 2] = (byte) 0x90;
+            out[at + 3] = (byte) 0x00;
+        }
+        return out;
+    }
+
+    // 10바이트 머리 + 본문 크기(synchsafe)
+    private static byte[] id3v2(int bodySize) {
+        byte[] tag = new byte[10 + bodySize];
+        tag[0] = 'I'; tag[1] = 'D'; tag[2] = '3'; tag[3] = 4;
+        for (int i = 0; i < 4; i++) tag[9 - i] = (byte) ((bodySize >>> (7 * i)) & 0x7F);
+        return tag;
+    }
+
+    private static byte[] concat(byte[] a, byte[] b) {
+        byte[] out = Arrays.copyOf(a, a.length + b.length);
+        System.arraycopy(b, 0, out, a.length, b.length);
+        return out;
+    }
+
+    private Path write(String name, byte[] bytes) throws IOException {
+        return Files.write(dir.resolve(name), bytes);
+    }
+
+    @Test
+    void bareMpegAudio() throws IOException {
+        assertSame(AudioFormats.MP3, AudioFormats.probe(write("a.mp3", mpegFrames(3))));
+    }
+
+    @Test
+    void skipsId3v2Tag() throws IOException {
+        Path p = write("tagged.mp3", concat(id3v2(5000), mpegFrames(3)));
+        assertSame(AudioFormats.MP3, AudioFormats.probe(p));
+    }
+
+    @Test
+    void framesAfterJunkWithinWindow() throws IOException {
+        byte[] junk = new byte[3000];
+        Arrays.fill(junk, (byte) 0x55);
+        Path p = write("junk-first.mp3", concat(id3v2(100), concat(junk, mpegFrames(2))));
+        assertSame(AudioFormats.MP3, AudioFormats.probe(p));
+    }
+
+    @Test
+    void singleSyncWordIsNotMpeg() throws IOException {
+        // 우연히 맞은 프레임 헤더 하나 뒤에 프레임이 이어지지 않는 파일
+        byte[] b = new byte[8192];
+        Arrays.fill(b, (byte) 0x20);
+        System.arraycopy(mpegFrames(1), 0, b, 0, 4);
+        assertNull(AudioFormats.probe(write("lucky.mp3", b)));
+    }
+
+    @Test
+    void framesBeyondWindowAreNotFound() throws IOException {
+        byte[] junk = new byte[AudioFormats.MPEG_SCAN_BYTES];
+        Path p = write("late.mp3", concat(junk, mpegFrames(3)));
+        assertNull(AudioFormats.probe(p));
+    }
+
+    @Test
+    void containerSignatures() throws IOException {
+        byte[] wav = new byte[64];
+        System.arraycopy("RIFF\0\0\0\0WAVEfmt ".getBytes(StandardCharsets.US_ASCII), 0, wav, 0, 16);
+        assertSame(AudioFormats.WAV, AudioFormats.probe(write("a.wav", wav)));
+
+        byte[] flac = Arrays.copyOf("fLaC".getBytes(StandardCharsets.US_ASCII), 64);
+        assertSame(AudioFormats.FLAC, AudioFormats.probe(write("a.flac", flac)));
+
+        byte[] m4a = Arrays.copyOf("\0\0\0 ftypM4A ".getBytes(StandardCharsets.US_ASCII), 64);
+        assertSame(AudioFormats.MP4, AudioFormats.probe(write("a.m4a", m4a)));
+    }
+
+    @Test
+    void unknownOrMissingIsNull() throws IOException {
+        assertNull(AudioFormats.probe(write("text.mp3", "hello, not audio".getBytes(StandardCharsets.US_ASCII))));
+        assertNull(AudioFormats.probe(write("empty.mp3", new byte[0])));
+        assertNull(AudioFormats.probe(dir.resolve("missing.mp3")));
+    }
+
+    @Test
+    void renamedFileIsNotPlayable() throws IOException {
+        Path renamed = write("really-flac.mp3", Arrays.copyOf("fLaC".getBytes(StandardCharsets.US_ASCII), 64));
+        AudioFormats.Format f = AudioFormats.probe(renamed);
+        assertSame(AudioFormats.FLAC, f);
+        assertFalse(AudioFormats.isPlayable(renamed, f));
+        Path wav = dir.resolve("song.wav");
+        assertTrue(AudioFormats.isPlayable(wav, AudioFormats.WAV));
+    }
+}
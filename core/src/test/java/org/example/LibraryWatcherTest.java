@@ -0,0 +1,53 @@
+package org.example;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class LibraryWatcherTest {
+
+    private static Path touch(Path p) throws IOException {
+        Files.createDirectories(p.getParent());
+        return Files.write(p, new byte[] {1});
+    }
+
+    private static LibraryWatcher.Changes next(BlockingQueue<LibraryWatcher.Changes> q) throws InterruptedException {
+        LibraryWatcher.Changes c = q.poll(10, TimeUnit.SECONDS);
+        assertNotNull(c, "콜백이 오지 않음");
+        return c;
+    }
+
+    @Test
+    void firstCallbackListsTreeThenEventsFollow(@TempDir Path root) throws Exception {
+        Path a = touch(root.resolve("a/1.mp3"));
+        Path b = touch(root.resolve("b/c/2.flac"));
+        touch(root.resolve("b/cover.jpg"));
+
+        BlockingQueue<LibraryWatcher.Changes> q = new LinkedBlockingQueue<>();
+        try (LibraryWatcher w = new LibraryWatcher(root, TrackFiles::isTrackFile, q::add)) {
+            w.start();
+            LibraryWatcher.Changes initial = next(q);
+            assertTrue(initial.resync);
+            assertEquals(List.of(a, b), initial.added);
+
+            Path c = touch(root.resolve("b/c/3.mp3"));
+            Files.delete(a);
+            LibraryWatcher.Changes changes = next(q);
+            assertFalse(changes.resync);
+            assertEquals(List.of(c), changes.added);
+            assertEquals(List.of(a), changes.removed);
+        }
+    }
+}
@@ -0,0 +1,67 @@
+package org.example;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import javax.sound.sampled.AudioFileFormat;
+import javax.sound.sampled.AudioFormat;
+import javax.sound.sampled.AudioInputStream;
+import javax.sound.sampled.AudioSystem;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.net.URISyntaxException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class LoudnessAnalyzerTest {
+
+    private static final float RATE = 44_100;
+
+    // 1 kHz 사인파, 진폭 0.1(-20 dBFS), 스테레오 3초. 테스트 리소스의 MP3도 같은 신호를 인코딩한 것이다.
+    private static Path writeTone(Path file) throws IOException {
+        int frames = (int) RATE * 3;
+        byte[] pcm = new byte[frames * 4];
+        for (int i = 0; i < frames; i++) {
+            short v = (short) Math.round(0.1 * 32767 * Math.sin(2 * Math.PI * 1000 * i / RATE));
+            for (int c = 0; c < 2; c++) {
+                pcm[i * 4 + c * 2] = (byte) v;
+                pcm[i * 4 + c * 2 + 1] = (byte) (v >> 8);
+            }
+        }
+        AudioFormat fmt = new AudioFormat(RATE, 16, 2, true, false);
+        AudioSystem.write(new AudioInputStream(new ByteArrayInputStream(pcm), fmt, frames),
+                AudioFileFormat.Type.WAVE, file.toFile());
+        return file;
+    }
+
+    @Test
+    void measuresPcm(@TempDir Path dir) throws IOException {
+        double lufs = LoudnessAnalyzer.integratedLoudness(writeTone(dir.resolve("tone.wav")));
+        assertEquals(-20.0, lufs, 0.2);
+    }
+
+    @Test
+    void measuresMp3(@TempDir Path dir) throws IOException, URISyntaxException {
+        Path mp3 = Path.of(getClass().getResource("/tone-1k.mp3").toURI());
+        double wav = LoudnessAnalyzer.integratedLoudness(writeTone(dir.resolve("tone.wav")));
+        double lufs = LoudnessAnalyzer.integratedLoudness(mp3);
+        // 인코더 지연/패딩의 무음 정도만 차이 난다
+        assertEquals(wav, lufs, 1.0);
+    }
+
+    @Test
+    void undecodableIsNaN(@TempDir Path dir) throws IOException {
+        Path junk = Files.write(dir.resolve("junk.mp3"), new byte[4096]);
+        assertTrue(Double.isNaN(LoudnessAnalyzer.integratedLoudness(junk)));
+    }
+
+    @Test
+    void parsesReplayGainText() {
+        assertEquals(-6.54f, LoudnessAnalyzer.parseDb(" -6.54 dB"), 1e-6f);
+        assertEquals(3f, LoudnessAnalyzer.parseDb("+3 dB"), 1e-6f);
+        assertTrue(Float.isNaN(LoudnessAnalyzer.parseDb("dB")));
+    }
+}
@@ -0,0 +1,74 @@
+package org.example;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class LrcParserTest {
+
+    private static List<LyricLine> parse(String lrc) throws IOException {
+        return new LrcParser().parse(new StringReader(lrc));
+    }
+
+    @Test
+    void timestampFormats() throws IOException {
+        List<LyricLine> lines = parse("[00:01]a\n[00:02.5]b\n[00:03.25]c\n[00:04.125]d\n[00:05:50]e\n");
+        assertEquals(5, lines.size());
+        assertEquals(1.0, lines.get(0).timeSec, 1e-9);
+        assertEquals(2.5, lines.get(1).timeSec, 1e-9);
+        assertEquals(3.25, lines.get(2).timeSec, 1e-9);
+        assertEquals(4.125, lines.get(3).timeSec, 1e-9);
+        assertEquals(5.5, lines.get(4).timeSec, 1e-9);
+        assertEquals("e", lines.get(4).text);
+    }
+
+    @Test
+    void repeatedStampsAreSortedByTime() throws IOException {
+        List<LyricLine> lines = parse("[00:12.00][01:30.00]후렴\r\n[00:20.00]절\r\n");
+        assertEquals(3, lines.size());
+        assertEquals("후렴", lines.get(0).text);
+        assertEquals("절", lines.get(1).text);
+        assertEquals(90.0, lines.get(2).timeSec, 1e-9);
+        assertEquals("후렴", lines.get(2).text);
+    }
+
+    @Test
+    void offsetAppliesToEveryLineWhereverItIs() throws IOException {
+        List<LyricLine> lines = parse("[00:10.00]a\n[offset:+500]\n[00:20.00]b\n");
+        assertEquals(9.5, lines.get(0).timeSec, 1e-9);
+        assertEquals(19.5, lines.get(1).timeSec, 1e-9);
+    }
+
+    @Test
+    void wordTagsAreStripped() throws IOException {
+        List<LyricLine> lines = parse("[00:01.00]<00:01.00>하나 <00:01.50>둘\n");
+        assertEquals("하나 둘", lines.get(0).text);
+    }
+
+    @Test
+    void readOffsetFindsLateHeader(@TempDir Path dir) throws IOException {
+        StringBuilder sb = new StringBuilder("\uFEFF[ti:제목]\n");
+        for (int i = 0; i < 2000; i++) sb.append(String.format("[%02d:%02d.00]줄 %d%n", i / 60, i % 60, i));
+        sb.append("[offset:-250]\n");
+        Path lrc = dir.resolve("late.lrc");
+        Files.writeString(lrc, sb, StandardCharsets.UTF_8);
+        assertEquals(-250, LrcParser.readOffsetMs(lrc));
+        assertEquals(2000, LrcParser.parse(lrc).size());
+    }
+
+    @Test
+    void readOffsetDefaultsToZero(@TempDir Path dir) throws IOException {
+        Path lrc = dir.resolve("plain.lrc");
+        Files.writeString(lrc, "[00:01.00]a\n", StandardCharsets.UTF_8);
+        assertEquals(0, LrcParser.readOffsetMs(lrc));
+        assertEquals(0, LrcParser.readOffsetMs(dir.resolve("missing.lrc")));
+    }
+}
@@ -0,0 +1,44 @@
+package org.example;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.BitSet;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class PermutationTest {
+
+    @Test
+    void applyIsBijectiveAndInvertUndoesIt() {
+        // 2의 거듭제곱 경계 주변과 홀수 반 비트 크기
+        for (int size : new int[] {1, 2, 3, 7, 8, 9, 100, 1000, 1023, 1024, 1025, 65_537}) {
+            for (long seed : new long[] {0, 1, 0xDEADBEEFL}) {
+                PlayOrder.Permutation p = new PlayOrder.Permutation(size, seed);
+                BitSet seen = new BitSet(size);
+                for (int i = 0; i < size; i++) {
+                    int v = p.apply(i);
+                    assertFalse(seen.get(v), "size " + size + ": " + v + " 중복");
+                    seen.set(v);
+                    assertEquals(i, p.invert(v));
+                }
+                assertEquals(size, seen.cardinality());
+            }
+        }
+    }
+
+    @Test
+    void sameSeedSameOrder() {
+        PlayOrder.Permutation a = new PlayOrder.Permutation(500, 42);
+        PlayOrder.Permutation b = new PlayOrder.Permutation(500, 42);
+        for (int i = 0; i < 500; i++) assertEquals(a.apply(i), b.apply(i));
+    }
+
+    @Test
+    void rejectsOutOfRange() {
+        PlayOrder.Permutation p = new PlayOrder.Permutation(10, 7);
+        assertThrows(IndexOutOfBoundsException.class, () -> p.apply(10));
+        assertThrows(IndexOutOfBoundsException.class, () -> p.invert(-1));
+    }
+}
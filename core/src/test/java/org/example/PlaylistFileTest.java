@@ -0,0 +1,125 @@
+package org.example;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.InvalidPathException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assumptions.abort;
+
+class PlaylistFileTest {
+
+    @TempDir
+    Path dir;
+
+    /** 읽은 결과를 모아 두는 리스너 */
+    private static final class Collect implements PlaylistFile.Listener {
+        final List<Path> found = new ArrayList<>();
+        final List<String> missing = new ArrayList<>();
+        int batches;
+        int doneFound = -1;
+
+        @Override
+        public void onBatch(List<Path> f, List<String> m) {
+            batches++;
+            found.addAll(f);
+            missing.addAll(m);
+        }
+
+        @Override
+        public void onDone(int f, int m) {
+            doneFound = f;
+        }
+    }
+
+    private Collect read(Path file) throws IOException {
+        Collect c = new Collect();
+        PlaylistFile.read(file, c, () -> false);
+        return c;
+    }
+
+    private Path track(String rel) throws IOException {
+        Path p;
+        try {
+            p = dir.resolve(rel);
+        } catch (InvalidPathException ex) {   // C/POSIX 로캘에서는 한글 파일 이름을 만들 수 없다
+            return abort("파일 이름 인코딩이 " + rel + "을(를) 표현하지 못함");
+        }
+        Files.createDirectories(p.getParent());
+        return Files.write(p, new byte[] {1});
+    }
+
+    @Test
+    void m3u8WithBomCrlfAndRelativePaths() throws IOException {
+        Path a = track("music/artist/one.mp3");
+        Path b = track("music/two.mp3");
+        Path list = dir.resolve("list.m3u8");
+        String body = "\uFEFF#EXTM3U\r\n#EXTINF:123,가수 - 하나\r\nmusic/artist/one.mp3\r\n"
+                + "music\\two.mp3\r\n\r\nmusic/없음.mp3\r\nhttp://example.com/stream\r\n" + b.toUri() + "\r\n";
+        Files.writeString(list, body, StandardCharsets.UTF_8);
+
+        Collect c = read(list);
+        assertEquals(List.of(a.normalize(), b.normalize(), b.normalize()), c.found);
+        assertEquals(List.of("music/없음.mp3", "http://example.com/stream"), c.missing);
+        assertEquals(3, c.doneFound);
+    }
+
+    @Test
+    void plsEntriesOnly() throws IOException {
+        Path a = track("a.mp3");
+        Path list = dir.resolve("list.pls");
+        Files.writeString(list, "[playlist]\nNumberOfEntries=2\nFile1=a.mp3\nTitle1=A\nLength1=10\nfile2=b.mp3\nVersion=2\n",
+                StandardCharsets.UTF_8);
+
+        Collect c = read(list);
+        assertEquals(List.of(a.normalize()), c.found);
+        assertEquals(List.of("b.mp3"), c.missing);
+    }
+
+    @Test
+    void legacyM3uFallsBackToCp949() throws IOException {
+        Path a = track("노래.mp3");
+        Path list = dir.resolve("old.m3u");
+        Files.write(list, "노래.mp3\n".getBytes(Charset.forName("x-windows-949")));
+
+        assertEquals(List.of(a.normalize()), read(list).found);
+    }
+
+    @Test
+    void largeListIsBatchedInOrder() throws IOException {
+        Path a = track("a.mp3");
+        int n = PlaylistFile.BATCH_SIZE * 2 + 17;
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < n; i++) sb.append(i % 2 == 0 ? "a.mp3" : "x" + i + ".mp3").append('\n');
+        Path list = dir.resolve("big.m3u8");
+        Files.writeString(list, sb, StandardCharsets.UTF_8);
+
+        Collect c = read(list);
+        assertEquals(3, c.batches);
+        assertEquals((n + 1) / 2, c.found.size());
+        assertEquals(a.normalize(), c.found.get(c.found.size() - 1));
+        assertEquals("x1.mp3", c.missing.get(0));
+    }
+
+    @Test
+    void cancelStopsAfterBatch() throws IOException {
+        track("a.mp3");
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < PlaylistFile.BATCH_SIZE * 3; i++) sb.append("a.mp3\n");
+        Path list = dir.resolve("big.m3u8");
+        Files.writeString(list, sb, StandardCharsets.UTF_8);
+
+        Collect c = new Collect();
+        PlaylistFile.read(list, c, () -> true);
+        assertEquals(1, c.batches);
+        assertEquals(-1, c.doneFound);
+    }
+}
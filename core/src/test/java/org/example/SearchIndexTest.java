@@ -0,0 +1,94 @@
+package org.example;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.function.IntPredicate;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class SearchIndexTest {
+
+    private SearchIndex index;
+
+    @BeforeEach
+    void setUp() {
+        index = new SearchIndex();
+        index.add(0, "사랑했지만", "김광석", "Best");
+        index.add(1, "라디오", "Radio Star", null);
+        index.add(2, "락앤롤", "밴드", "live.mp3");
+        index.add(3, "Hello World", "Adele", "25");
+    }
+
+    private static String hits(IntPredicate m) {
+        StringBuilder sb = new StringBuilder();
+        for (int t = 0; t < 4; t++) if (m.test(t)) sb.append(t);
+        return sb.toString();
+    }
+
+    @Test
+    void emptyQueryHasNoFilter() {
+        assertNull(index.matcher("  "));
+    }
+
+    @Test
+    void prefixIsCaseInsensitiveAndAnded() {
+        assertEquals("3", hits(index.matcher("HEL")));
+        assertEquals("3", hits(index.matcher("wor hel")));
+        assertEquals("", hits(index.matcher("hello radio")));
+        assertEquals("1", hits(index.matcher("star")));
+    }
+
+    @Test
+    void choseongMatchesWholeToken() {
+        assertEquals("0", hits(index.matcher("ㄱㄱㅅ")));
+        assertEquals("0", hits(index.matcher("ㅅㄹ")));
+        assertEquals("2", hits(index.matcher("ㄹㅇㄹ")));
+    }
+
+    @Test
+    void incompleteLastSyllable() {
+        // '라'는 받침이 붙을 수 있으므로 '락'도 포함
+        assertEquals("12", hits(index.matcher("라")));
+        // '락'은 '라'+'ㄱ…'을 입력하는 중일 수 있다
+        assertEquals("2", hits(index.matcher("락")));
+        assertEquals("1", hits(index.matcher("라디")));
+        // 초성 하나로 끝난 질의: 사+ㄹ… → 사랑
+        assertEquals("0", hits(index.matcher("사ㄹ")));
+    }
+
+    @Test
+    void reAddReplacesOldTokens() {
+        index.add(3, "Goodbye", "Adele", "25");
+        assertFalse(index.matcher("hello").test(3));
+        assertTrue(index.matcher("good").test(3));
+        assertEquals(4, index.size());
+        assertTrue(index.contains(3));
+        assertFalse(index.contains(4));
+    }
+
+    @Test
+    void reAddDoesNotGrowIndex() {
+        int terms = index.terms();
+        for (int i = 0; i < 100; i++) {
+            index.add(0, "제목" + i, "김광석", "Best");
+            index.add(0, "사랑했지만", "김광석", "Best");
+        }
+        assertEquals(terms, index.terms());
+        assertEquals("", hits(index.matcher("제목")));
+        assertEquals("0", hits(index.matcher("ㅅㄹㅎ")));
+    }
+
+    @Test
+    void sharedTokenSurvivesOtherTrackRemoval() {
+        index.add(4, "Radio Ga Ga");
+        index.add(1, "라디오");
+        assertEquals("", hits(index.matcher("star")));
+        assertTrue(index.matcher("radio").test(4));
+        assertFalse(index.matcher("radio").test(1));
+        assertTrue(index.matcher("라디").test(1));
+    }
+}
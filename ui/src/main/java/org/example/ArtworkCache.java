@@ -0,0 +1,117 @@
+package org.example;
+
+import javafx.application.Platform;
+import javafx.scene.image.Image;
+import javafx.scene.image.PixelFormat;
+import javafx.scene.image.WritableImage;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/**
+ * 아트워크 축소판 2단 캐시의 메모리 쪽. 내용 해시별 {@link Image}를 총 픽셀 바이트 기준 LRU로 들고,
+ * 없으면 워커 스레드에서 디스크 캐시({@link ThumbnailStore})를 읽거나 원본을 디코딩·축소해 만든다.
+ * 같은 해시를 동시에 여러 셀이 요청해도 작업은 하나만 돈다. FX 스레드에서만 호출한다.
+ */
+final class ArtworkCache {
+
+    private final ThumbnailStore store;
+    private final Function<Path, byte[]> artworkReader;
+    private final long maxBytes;
+    private final LinkedHashMap<Long, Image> images = new LinkedHashMap<>(64, 0.75f, true);
+    private final Map<Long, List<Consumer<Image>>> pending = new HashMap<>();
+    private long bytes;
+
+    private final ExecutorService executor = Executors.newFixedThreadPool(2, r -> {
+        Thread t = new Thread(r, "artwork");
+        t.setDaemon(true);
+        t.setPriority(Thread.NORM_PRIORITY - 1);
+        return t;
+    });
+
+    /** artworkReader: 워커 스레드에서 호출, 트랙의 원본 아트워크 바이트(없으면 null) */
+    ArtworkCache(ThumbnailStore store, Function<Path, byte[]> artworkReader, long maxBytes) {
+        this.store = store;
+        this.artworkReader = artworkReader;
+        this.maxBytes = maxBytes;
+    }
+
+    /** 메모리에 있을 때만 돌려준다. */
+    Image get(long hash) {
+        return images.get(hash);
+    }
+
+    /** 준비되면 FX 스레드에서 onReady를 부른다. 만들 수 없으면 호출하지 않는다. */
+    void request(long hash, Path source, Consumer<Image> onReady) {
+        Image img = images.get(hash);
+        if (img != null) {
+            onReady.accept(img);
+            return;
+        }
+        List<Consumer<Image>> waiters = pending.get(hash);
+        if (waiters != null) {
+            waiters.add(onReady);
+            return;
+        }
+        waiters = new ArrayList<>(2);
+        waiters.add(onReady);
+        pending.put(hash, waiters);
+        executor.execute(() -> {
+            Image made = build(hash, source);
+            Platform.runLater(() -> {
+                List<Consumer<Image>> done = pending.remove(hash);
+                if (made == null) return;
+                put(hash, made);
+                if (done != null) for (Consumer<Image> c : done) c.accept(made);
+            });
+        });
+    }
+
+    void shutdown() {
+        executor.shutdownNow();
+    }
+
+    // 워커 스레드: 디스크 → 없으면 원본 디코딩/축소 후 디스크에 저장
+    private Image build(long hash, Path source) {
+        ThumbnailStore.Thumbnail t = store.load(hash);
+        if (t == null) {
+            byte[] art;
+            try {
+                art = artworkReader.apply(source);
+            } catch (RuntimeException ex) {
+                return null;
+            }
+            if (art == null) return null;
+            t = store.getOrCreate(art);
+            if (t == null) return null;
+        }
+        // 장면 그래프에 붙기 전이라 워커 스레드에서 픽셀을 채워도 된다
+        WritableImage img = new WritableImage(t.width, t.height);
+        img.getPixelWriter().setPixels(0, 0, t.width, t.height, PixelFormat.getIntArgbInstance(), t.argb, 0, t.width);
+        return img;
+    }
+
+    private void put(long hash, Image img) {
+        Image old = images.put(hash, img);
+        if (old != null) bytes -= weight(old);
+        bytes += weight(img);
+        Iterator<Map.Entry<Long, Image>> it = images.entrySet().iterator();
+        while (bytes > maxBytes && images.size() > 1 && it.hasNext()) {
+            bytes -= weight(it.next().getValue());
+            it.remove();
+        }
+    }
+
+    private static long weight(Image img) {
+        return (long) img.getWidth() * (long) img.getHeight() * 4;
+    }
+}
@@ -0,0 +1,119 @@
+package org.example;
+
+import javafx.geometry.Pos;
+import javafx.scene.control.Button;
+import javafx.scene.control.CheckBox;
+import javafx.scene.control.TitledPane;
+import javafx.scene.control.TreeItem;
+import javafx.scene.control.TreeView;
+import javafx.scene.layout.HBox;
+import javafx.scene.layout.Priority;
+import javafx.scene.layout.Region;
+import javafx.scene.layout.VBox;
+
+import java.util.List;
+import java.util.function.IntConsumer;
+import java.util.function.IntFunction;
+
+/**
+ * 중복 찾기 결과: 내용이 같은 곡 묶음을 접이식 트리로 보여 준다. 곡을 두 번 누르면 재생한다.
+ * '재생목록에서 접기'를 켜면 묶음마다 첫 곡만 목록에 남기고 나머지는 숨긴다(파일은 그대로).
+ * 결과가 없으면 자리도 차지하지 않는다. FX 스레드에서만 사용한다.
+ */
+final class DuplicatePanel extends TitledPane {
+
+    /** 트리 한 줄. 묶음 머리는 id가 -1 */
+    private static final class Row {
+        final String text;
+        final int id;
+
+        Row(String text, int id) {
+            this.text = text;
+            this.id = id;
+        }
+
+        @Override
+        public String toString() {
+            return text;
+        }
+    }
+
+    private final TreeView<Row> tree = new TreeView<>();
+    private final CheckBox collapseBox = new CheckBox("재생목록에서 접기");
+    private List<int[]> groups = List.of();
+
+    /** play: 트랙 id 재생, onCollapse: 접기 상태가 바뀌었을 때 */
+    DuplicatePanel(IntConsumer play, Runnable onCollapse) {
+        tree.setShowRoot(false);
+        tree.setPrefHeight(160);
+        tree.setFocusTraversable(false);
+        tree.setOnMouseClicked(e -> {
+            if (e.getClickCount() != 2) return;
+            TreeItem<Row> item = tree.getSelectionModel().getSelectedItem();
+            if (item != null && item.getValue().id >= 0) play.accept(item.getValue().id);
+        });
+        collapseBox.selectedProperty().addListener((obs, ov, nv) -> onCollapse.run());
+        Button expandBtn = new Button("모두 펼치기");
+        expandBtn.setOnAction(e -> setAllExpanded(true));
+        Button foldBtn = new Button("모두 접기");
+        foldBtn.setOnAction(e -> setAllExpanded(false));
+        Button closeBtn = new Button("닫기");
+        closeBtn.setOnAction(e -> clear());
+        Region spacer = new Region();
+        HBox.setHgrow(spacer, Priority.ALWAYS);
+        HBox actions = new HBox(6, collapseBox, spacer, expandBtn, foldBtn, closeBtn);
+        actions.setAlignment(Pos.CENTER_LEFT);
+        VBox box = new VBox(6, tree, actions);
+        VBox.setVgrow(tree, Priority.ALWAYS);
+
+        setContent(box);
+        setAnimated(false);
+        getStyleClass().add("duplicate-panel");
+        setShowing(false);
+    }
+
+    /** 묶음마다 트랙 id(2개 이상). 머리 줄은 첫 곡 제목, 아래는 파일 경로. */
+    void show(List<int[]> groups, IntFunction<String> title, IntFunction<String> location) {
+        this.groups = groups;
+        TreeItem<Row> root = new TreeItem<>(new Row("", -1));
+        int files = 0;
+        for (int[] g : groups) {
+            TreeItem<Row> head = new TreeItem<>(new Row(String.format("%s — %d곡", title.apply(g[0]), g.length), -1));
+            for (int id : g) head.getChildren().add(new TreeItem<>(new Row(location.apply(id), id)));
+            root.getChildren().add(head);
+            files += g.length;
+        }
+        tree.setRoot(root);
+        setText(String.format("중복 %,d묶음 · %,d곡", groups.size(), files));
+        setExpanded(true);
+        setShowing(!groups.isEmpty());
+        collapseBox.setSelected(false);   // 켜져 있었으면 리스너가 목록을 되돌린다
+    }
+
+    void clear() {
+        boolean wasCollapsed = collapseBox.isSelected();
+        groups = List.of();
+        tree.setRoot(null);
+        setShowing(false);
+        if (wasCollapsed) collapseBox.setSelected(false);
+    }
+
+    /** 접기가 켜져 있으면 각 묶음의 첫 곡을 뺀 나머지 id에 대해 hide를 부른다. */
+    void forEachHidden(IntConsumer hide) {
+        if (!collapseBox.isSelected()) return;
+        for (int[] g : groups) {
+            for (int k = 1; k < g.length; k++) hide.accept(g[k]);
+        }
+    }
+
+    private void setAllExpanded(boolean expanded) {
+        TreeItem<Row> root = tree.getRoot();
+        if (root == null) return;
+        for (TreeItem<Row> head : root.getChildren()) head.setExpanded(expanded);
+    }
+
+    private void setShowing(boolean showing) {
+        setVisible(showing);
+        setManaged(showing);
+    }
+}
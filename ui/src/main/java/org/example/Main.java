@@ -0,0 +1,1481 @@
+package org.example;
+
+import javafx.animation.Animation;
+import javafx.animation.KeyFrame;
+import javafx.animation.Timeline;
+import javafx.application.Application;
+import javafx.application.Platform;
+import javafx.beans.Observable;
+import javafx.beans.property.*;
+import javafx.collections.transformation.FilteredList;
+import javafx.geometry.Insets;
+import javafx.geometry.Pos;
+import javafx.scene.Scene;
+import javafx.scene.control.*;
+import javafx.scene.image.Image;
+import javafx.scene.image.ImageView;
+import javafx.scene.input.KeyCode;
+import javafx.scene.layout.*;
+import javafx.scene.media.Media;
+import javafx.scene.media.MediaPlayer;
+import javafx.scene.media.MediaPlayer.Status;
+import javafx.stage.DirectoryChooser;
+import javafx.stage.FileChooser;
+import javafx.stage.Stage;
+import javafx.util.Duration;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.URL;
+import java.nio.file.*;
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.IntPredicate;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import javafx.scene.text.Font;
+import javafx.scene.layout.Priority;
+import javafx.scene.control.OverrunStyle;
+
+public class Main extends Application {
+
+    // 트랙은 저장소의 int id로 다룬다. Path는 재생/파일 작업 직전에만 만든다.
+    private final TrackStore store = new TrackStore();
+    private final TrackList playlist = new TrackList();
+    // 검색은 재생목록을 복사하지 않고 FilteredList로 걸러서 보여 준다
+    private final FilteredList<Integer> visibleTracks = new FilteredList<>(playlist);
+    private final ListView<Integer> listView = new ListView<>(visibleTracks);
+    private final TextField searchField = new TextField();
+    private final SearchIndex searchIndex = new SearchIndex();
+    private final ComboBox<TrackStore.SortKey> sortBox =
+            new ComboBox<>(javafx.collections.FXCollections.observableArrayList(TrackStore.SortKey.values()));
+    private TrackStore.SortKey sortKey = TrackStore.SortKey.PATH;
+
+    private final IntegerProperty currentIndex = new SimpleIntegerProperty(-1);
+    private final ObjectProperty<MediaPlayer> player = new SimpleObjectProperty<>(null);
+    private final ObjectProperty<RepeatMode> repeatMode = new SimpleObjectProperty<>(RepeatMode.NONE);
+
+    private final Slider seekSlider = new Slider(0, 100, 0);
+    private final Slider volumeSlider = new Slider(0, 1, 0.8);
+    private final Label timeLabel = new Label("00:00 / 00:00");
+    private final CheckBox normalizeBox = new CheckBox("음량 평준화");
+    private final ProgressTicker progressTicker =
+            new ProgressTicker(player::get, seekSlider, timeLabel, this::updateLyricsHighlight);
+    // 슬라이더 탐색은 모두 여기를 거친다: 드래그 중 요청을 모아 seek 횟수를 제한
+    private final SeekScheduler seekScheduler = new SeekScheduler(this::seekTo,
+            sec -> progressTicker.show((long) sec, (long) seekSlider.getMax()));
+
+    // 상단 바 분리: 왼쪽 폴더명, 오른쪽 곡 제목
+    private final Label folderLabel = new Label("폴더 미선택");
+    private final Label trackLabel  = new Label("재생할 트랙을 선택해 주세요");
+    private final ImageView artView = new ImageView();
+    private final Label scanLabel = new Label();
+    private final Button cancelScanBtn = new Button("스캔 중지");
+
+    private final Button playPauseBtn = new Button("재생");
+    private final Button prevBtn = new Button("이전");
+    private final Button nextBtn = new Button("다음");
+    private final Button repeatBtn = new Button();
+    private final ToggleButton shuffleBtn = new ToggleButton("셔플");
+    private final Label queueLabel = new Label();
+
+    // 다음 곡 결정(대기열, 셔플, 재생 기록). 위치 대신 트랙 id로 기억해서 목록이 바뀌어도 어긋나지 않는다.
+    private final PlayOrder order = new PlayOrder(System.nanoTime());
+
+    // 가사는 가상화된 ListView로: 화면에 보이는 줄만 셀(노드)을 만든다
+    private final javafx.collections.ObservableList<LyricLine> lyricLines = javafx.collections.FXCollections.observableArrayList();
+    private final ListView<LyricLine> lyricsView = new ListView<>(lyricLines);
+    private final BooleanProperty lyricsSynced = new SimpleBooleanProperty(false);
+    private LyricTimeline lyricTimeline = LyricTimeline.EMPTY;
+    private int currentLyricIndex = -1;
+
+    private final LibraryScanner scanner = new LibraryScanner(TrackFiles::isTrackFile);
+    private LibraryScanner.Scan activeScan;
+    private Path libraryRoot;
+    private LibraryWatcher watcher;
+    private boolean autoPlayOnScan;
+    // 폴더 대신 재생목록 파일에서 불러온 목록(감시/재탐색 없음). 가져오기 세대가 바뀌면 진행 중인 읽기는 버린다.
+    private boolean playlistSession;
+    private volatile int importGen;
+    private static final int MISSING_REPORT_LIMIT = 200;
+
+    // 태그 메타데이터 디스크 인덱스. 로드가 끝난 뒤에 인덱싱 작업을 이어 붙인다.
+    private final MetadataIndex metadataIndex = MetadataIndex.openDefault();
+    private final ExecutorService metadataExecutor = Executors.newFixedThreadPool(2, r -> {
+        Thread t = new Thread(r, "metadata-index");
+        t.setDaemon(true);
+        return t;
+    });
+    private CompletableFuture<Void> indexLoaded;
+    // 지금까지 건 인덱싱 작업 전체(태그 기준 재정렬은 이게 끝난 뒤)
+    private CompletableFuture<Void> indexing = CompletableFuture.completedFuture(null);
+    private static final int TAG_BATCH = 4096;
+
+    // 재생할 곡의 태그/가사는 일괄 인덱싱과 별도 스레드에서 한 번만 읽는다
+    private final TrackMetadataCache metadataCache = new TrackMetadataCache(256, 48L << 20);
+    private final ExecutorService trackInfoExecutor = Executors.newSingleThreadExecutor(r -> {
+        Thread t = new Thread(r, "track-metadata");
+        t.setDaemon(true);
+        return t;
+    });
+    private int trackInfoSeq;
+
+    // 다음 곡 MediaPlayer 미리 준비(갭리스 전환)
+    private final PlayerPreloader preloader = PlayerPreloader.fromSystemProperty();
+    private boolean listRefreshPending;
+
+    // 트랙별 음량 보정: 태그 ReplayGain 또는 백그라운드 라우드니스 분석 결과를 인덱스에 캐시
+    private final LoudnessAnalyzer loudness = new LoudnessAnalyzer();
+    private volatile int loudnessGen;
+    private float currentGainDb;
+
+    // 아트워크 축소판: 메모리 LRU(Image) + 디스크 캐시(내용 해시). 원본 디코딩은 워커 스레드에서만.
+    private final ArtworkCache artwork = new ArtworkCache(ThumbnailStore.openDefault(), track -> {
+        TrackMetadata cached = metadataCache.get(track);
+        return (cached != null ? cached : TrackMetadata.read(track)).artwork;
+    }, 24L << 20);
+
+    // 세션 스냅샷: 종료할 때와 재생 중 주기적으로 저장, 다음 실행 때 스캔 없이 복원
+    private final Path sessionFile = SessionSnapshot.defaultFile();
+    private final Timeline sessionSaver = new Timeline(new KeyFrame(Duration.seconds(15), e -> saveSession(false)));
+    private boolean sessionDirty;     // 재생목록(또는 정렬/폴더)이 바뀜: 전체를 다시 쓴다
+    private boolean stateDirty;       // 현재 곡/반복/볼륨만 바뀜: 머리의 재생 상태만 고친다
+    private volatile boolean sessionSaveFailed;
+
+    // 재생 위치 앞쪽 트랙 사전 점검. 문제 파일은 격리해서 건너뛰고 패널에만 알린다.
+    private static final int VALIDATE_AHEAD = 8;
+    private final Map<Integer, String> quarantine = new HashMap<>();
+    private final ProblemPanel problemPanel = new ProblemPanel();
+    private final TrackValidator validator = new TrackValidator(metadataIndex, 2,
+            (track, reason) -> Platform.runLater(() -> quarantine(track, reason)));
+
+    // 내용이 같은 곡 찾기(태그 영역 제외). 접기를 켜면 묶음마다 첫 곡만 목록/재생 순서에 남긴다.
+    private final DuplicateFinder duplicateFinder = new DuplicateFinder(metadataIndex);
+    private final DuplicatePanel duplicatePanel = new DuplicatePanel(this::playId, this::applyDuplicateCollapse);
+    private final Button findDuplicatesBtn = new Button("중복 찾기");
+    private final BitSet hiddenDuplicates = new BitSet();
+    private volatile int duplicateGen;
+
+    // 곡 전환 계측: playAt → READY → PLAYING
+    private final MetricsOverlay metricsOverlay = new MetricsOverlay();
+    private PlayerEvents.TrackStart trackStartEvent;
+    private long playAtNanos;
+    private long readyNanos;
+
+    @Override
+    public void start(Stage stage) {
+        stage.setTitle("JavaFX MP3 Player");
+
+        Logger.getLogger("org.jaudiotagger").setLevel(Level.SEVERE);
+        indexLoaded = CompletableFuture.runAsync(metadataIndex::load, metadataExecutor)
+                .thenRun(this::requestListRefresh);
+
+        // 프로젝트에 포함한 폰트 로드(선택)
+        try { Font.loadFont(Main.class.getResourceAsStream("/fonts/PretendardVariable.ttf"), 14); } catch (Exception ignore) {}
+
+        Button openFolderBtn = new Button("폴더 선택");
+        openFolderBtn.setOnAction(e -> chooseFolder(stage));
+        Button importBtn = new Button("목록 열기");
+        importBtn.setOnAction(e -> importPlaylist(stage));
+        Button exportBtn = new Button("목록 저장");
+        exportBtn.setOnAction(e -> exportPlaylist(stage));
+
+        // 상단 바: [폴더 선택] [폴더명] (spacer) [곡 제목]
+        folderLabel.getStyleClass().add("folder-label");
+        trackLabel.getStyleClass().add("title");
+        trackLabel.setMaxWidth(Double.MAX_VALUE);
+        trackLabel.setTextOverrun(OverrunStyle.ELLIPSIS);
+        folderLabel.setTextOverrun(OverrunStyle.ELLIPSIS);
+
+        Region spacer = new Region();
+        HBox.setHgrow(spacer, Priority.ALWAYS);
+
+        scanLabel.getStyleClass().add("scan-label");
+        cancelScanBtn.setOnAction(e -> stopScan());
+        setScanning(false);
+
+        artView.setFitWidth(40);
+        artView.setFitHeight(40);
+        artView.setPreserveRatio(true);
+        artView.setSmooth(true);
+
+        HBox topBar = new HBox(10, openFolderBtn, importBtn, exportBtn, folderLabel, scanLabel, cancelScanBtn, spacer, artView, trackLabel);
+        topBar.setAlignment(Pos.CENTER_LEFT);
+        topBar.setPadding(new Insets(10));
+        topBar.getStyleClass().add("topbar");
+
+        listView.setCellFactory(lv -> new ListCell<>() {
+            private final ImageView thumb = new ImageView();
+            {
+                thumb.setFitWidth(28);
+                thumb.setFitHeight(28);
+                thumb.setPreserveRatio(true);
+                thumb.setSmooth(true);
+            }
+
+            @Override
+            protected void updateItem(Integer item, boolean empty) {
+                super.updateItem(item, empty);
+                if (empty || item == null) {
+                    setText(null);
+                    setGraphic(null);
+                    getStyleClass().remove("unplayable");
+                    return;
+                }
+                int id = item;
+                setText(store.displayTitle(id));
+                setGraphic(thumb);
+                if (isPlayableId(id)) getStyleClass().remove("unplayable");
+                else if (!getStyleClass().contains("unplayable")) getStyleClass().add("unplayable");
+                long hash = store.artHash(id);
+                if (hash <= 0) {
+                    thumb.setImage(null);
+                    return;
+                }
+                Image img = artwork.get(hash);
+                thumb.setImage(img);
+                if (img == null) {
+                    // 준비되는 사이 셀이 다른 곡으로 재사용됐으면 무시
+                    artwork.request(hash, store.path(id), im -> {
+                        if (item.equals(getItem())) thumb.setImage(im);
+                    });
+                }
+            }
+        });
+        MenuItem playNextItem = new MenuItem("다음에 재생");
+        playNextItem.setOnAction(e -> enqueueSelected(true));
+        MenuItem enqueueItem = new MenuItem("대기열에 추가");
+        enqueueItem.setOnAction(e -> enqueueSelected(false));
+        MenuItem clearQueueItem = new MenuItem("대기열 비우기");
+        clearQueueItem.setOnAction(e -> {
+            order.clearQueue();
+            updateQueueLabel();
+            if (player.get() != null) preloader.prepare(upcomingTracks());
+        });
+        listView.setContextMenu(new ContextMenu(playNextItem, enqueueItem, clearQueueItem));
+        listView.setOnMouseClicked(e -> {
+            if (e.getClickCount() == 2) {
+                int idx = listView.getSelectionModel().getSelectedIndex();
+                if (idx >= 0) playAt(visibleTracks.getSourceIndex(idx));
+            }
+        });
+
+        lyricsView.getStyleClass().add("lyrics-view");
+        lyricsView.setFocusTraversable(false);
+        lyricsView.setCellFactory(lv -> new ListCell<>() {
+            {
+                setWrapText(true);
+                prefWidthProperty().bind(lv.widthProperty().subtract(24));
+                getStyleClass().add("lyric-line");
+            }
+
+            @Override
+            protected void updateItem(LyricLine item, boolean empty) {
+                super.updateItem(item, empty);
+                setText(empty || item == null ? null : item.text);
+                boolean current = !empty && getIndex() == currentLyricIndex;
+                if (current) {
+                    if (!getStyleClass().contains("lyric-current")) getStyleClass().add("lyric-current");
+                } else {
+                    getStyleClass().remove("lyric-current");
+                }
+            }
+        });
+
+        SplitPane split = new SplitPane();
+        split.setDividerPositions(0.4);
+        searchField.setPromptText("제목, 아티스트, 앨범, 가사 검색 (초성 가능)");
+        searchField.getStyleClass().add("search-field");
+        searchField.textProperty().addListener((obs, ov, nv) -> applySearch());
+        searchField.setOnKeyPressed(e -> {
+            if (e.getCode() == KeyCode.ESCAPE) searchField.clear();
+            e.consume(); // 스페이스/방향키가 재생 단축키로 새지 않게
+        });
+        sortBox.setValue(sortKey);
+        sortBox.setPromptText("목록 순서");
+        sortBox.setFocusTraversable(false);
+        sortBox.valueProperty().addListener((obs, ov, nv) -> {
+            if (nv != null && nv != sortKey) applySort(nv);
+        });
+        HBox.setHgrow(searchField, Priority.ALWAYS);
+        findDuplicatesBtn.setFocusTraversable(false);
+        findDuplicatesBtn.setOnAction(e -> findDuplicates());
+        HBox searchRow = new HBox(6, searchField, sortBox, findDuplicatesBtn);
+        searchRow.setAlignment(Pos.CENTER_LEFT);
+        VBox.setVgrow(listView, Priority.ALWAYS);
+        VBox libraryPane = new VBox(6, searchRow, listView, duplicatePanel);
+        libraryPane.setPadding(new Insets(6, 0, 0, 0));
+
+        split.getItems().addAll(libraryPane, lyricsView);
+
+        playPauseBtn.setOnAction(e -> togglePlayPause());
+        prevBtn.setOnAction(e -> playPrevious());
+        nextBtn.setOnAction(e -> playNext());
+        updateRepeatButtonText();
+        repeatBtn.setOnAction(e -> {
+            repeatMode.set(repeatMode.get().next());
+            updateRepeatButtonText();
+        });
+        repeatMode.addListener((obs, ov, nv) -> {
+            if (player.get() != null) preloader.prepare(upcomingTracks());
+        });
+        shuffleBtn.setFocusTraversable(false);
+        shuffleBtn.selectedProperty().addListener((obs, ov, nv) -> {
+            int cur = currentIndex.get();
+            order.setShuffle(nv, cur >= 0 && cur < playlist.size() ? playlist.idAt(cur) : -1);
+            if (player.get() != null) preloader.prepare(upcomingTracks());
+        });
+        queueLabel.getStyleClass().add("scan-label");
+        updateQueueLabel();
+
+        seekSlider.setDisable(true);
+        // 트랙 클릭은 값만 바뀌고, 손잡이 드래그는 valueChanging으로 들어온다
+        seekSlider.setOnMousePressed(e -> {
+            if (!seekSlider.isValueChanging()) seekScheduler.request(seekSlider.getValue());
+        });
+        seekSlider.setOnMouseReleased(e -> seekScheduler.commit());
+        seekSlider.valueProperty().addListener((obs, ov, nv) -> {
+            if (seekSlider.isValueChanging()) seekScheduler.request(nv.doubleValue());
+        });
+        seekSlider.valueChangingProperty().addListener((obs, was, isChanging) -> {
+            if (!isChanging) seekScheduler.commit();
+        });
+
+        // 슬라이더가 가로폭을 최대한 차지
+        HBox.setHgrow(seekSlider, Priority.ALWAYS);
+        seekSlider.setMaxWidth(Double.MAX_VALUE);
+
+        volumeSlider.valueProperty().addListener((obs, ov, nv) -> applyVolume());
+        normalizeBox.setSelected(true);
+        normalizeBox.selectedProperty().addListener((obs, ov, nv) -> applyVolume());
+
+        HBox transport = new HBox(10, prevBtn, playPauseBtn, nextBtn, repeatBtn, shuffleBtn, queueLabel);
+        transport.setAlignment(Pos.CENTER_LEFT);
+
+        // 시간 라벨 고정폭 폰트
+        timeLabel.getStyleClass().add("time-label");
+
+        HBox timeRow = new HBox(10, new Label("진행"), seekSlider, timeLabel);
+        timeRow.setAlignment(Pos.CENTER_LEFT);
+
+        HBox volRow = new HBox(10, new Label("볼륨"), volumeSlider, normalizeBox);
+        volRow.setAlignment(Pos.CENTER_LEFT);
+
+        VBox bottom = new VBox(8, problemPanel, transport, timeRow, volRow);
+        bottom.setPadding(new Insets(10));
+        bottom.getStyleClass().add("bottombar");
+
+        BorderPane root = new BorderPane();
+        root.setTop(topBar);
+        root.setCenter(split);
+        root.setBottom(bottom);
+
+        Scene scene = new Scene(new StackPane(root, metricsOverlay), 1000, 620);
+
+        // CSS 로딩
+        URL cssUrl = null;
+        cssUrl = (cssUrl == null) ? Main.class.getResource("/styles.css") : cssUrl;
+        cssUrl = (cssUrl == null) ? Thread.currentThread().getContextClassLoader().getResource("styles.css") : cssUrl;
+        cssUrl = (cssUrl == null) ? Main.class.getResource("styles.css") : cssUrl;
+
+        if (cssUrl != null) {
+            System.out.println("[CSS] Loaded from: " + cssUrl);
+            scene.getStylesheets().add(cssUrl.toExternalForm());
+        } else {
+            // 클래스패스에 없을 때(IDE 실행 등): 루트에서 실행했든 ui/에서 실행했든 소스 위치를 찾는다
+            Path devCss = Paths.get("ui/src/main/resources/styles.css");
+            if (!Files.exists(devCss)) devCss = Paths.get("src/main/resources/styles.css");
+            if (Files.exists(devCss)) {
+                String uri = devCss.toUri().toString();
+                System.out.println("[CSS] Fallback file path: " + uri);
+                scene.getStylesheets().add(uri);
+            } else {
+                String css = """
+                    /* dark theme minimal fallback */
+                    .root { -fx-background-color:#111418; -fx-text-fill:#e8eaed; -fx-font-family:"Pretendard Variable","Noto Sans KR","Malgun Gothic","Segoe UI",sans-serif; -fx-font-size:14px; }
+                    .topbar, .bottombar { -fx-background-color:#1b1f24; -fx-border-color:#2a2f36; }
+                    .topbar { -fx-border-width:0 0 1 0; } .bottombar { -fx-border-width:1 0 0 0; }
+                    .button, .toggle-button { -fx-background-radius:12; -fx-background-color:#2a2f36; -fx-text-fill:#e8eaed; -fx-padding:8 14 8 14; -fx-font-size:13px; }
+                    .button:hover, .toggle-button:hover { -fx-background-color:#354050; }
+                    .toggle-button:selected { -fx-background-color:#2f6feb; -fx-text-fill:white; }
+                    .list-view { -fx-background-color:#111418; -fx-control-inner-background:#111418; -fx-border-color:#2a2f36; }
+                    .list-cell { -fx-text-fill:#e8eaed; -fx-padding:8 12 8 12; }
+                    .list-cell:filled:selected, .list-cell:filled:selected:hover { -fx-background-color:#2f6feb; -fx-text-fill:white; }
+                    .label { -fx-text-fill:#e8eaed; }
+                    .search-field { -fx-background-color:#1b1f24; -fx-text-fill:#e8eaed; -fx-prompt-text-fill:#6b7280; -fx-border-color:#2a2f36; -fx-background-radius:8; -fx-border-radius:8; }
+                    .list-cell.unplayable { -fx-text-fill:#6b7280; }
+                    .problem-panel > .title { -fx-background-color:#2a2f36; -fx-font-size:12px; }
+                    .problem-panel > .title > .text { -fx-fill:#f0b429; }
+                    .problem-panel > .content { -fx-background-color:#1b1f24; -fx-border-color:#2a2f36; }
+                    .duplicate-panel > .title { -fx-background-color:#2a2f36; -fx-font-size:12px; }
+                    .duplicate-panel > .content { -fx-background-color:#1b1f24; -fx-border-color:#2a2f36; }
+                    .duplicate-panel .tree-view { -fx-background-color:#111418; -fx-control-inner-background:#111418; -fx-border-color:#2a2f36; }
+                    .duplicate-panel .tree-cell { -fx-text-fill:#e8eaed; -fx-font-size:12px; -fx-padding:3 8 3 8; }
+                    .metrics-overlay { -fx-font-family:"Consolas", monospace; -fx-font-size:11px; -fx-text-fill:#cfd3da; -fx-background-color:rgba(17,20,24,0.88); -fx-padding:8; -fx-translate-x:-12; -fx-translate-y:60; }
+                    .lyric-line { -fx-font-size:15px; -fx-line-spacing:4px; -fx-text-fill:#cfd3da; }
+                    .lyric-current { -fx-font-size:16px; -fx-font-weight:bold; -fx-text-fill:#ffffff; }
+                    .lyrics-view { -fx-border-color:transparent; -fx-padding:10; }
+                    .lyrics-view .list-cell, .lyrics-view .list-cell:filled:selected, .lyrics-view .list-cell:filled:hover { -fx-background-color:transparent; -fx-padding:2 0 2 0; }
+                    .scroll-pane { -fx-background:#111418; -fx-control-inner-background:#111418; }
+                    .scroll-pane .viewport { -fx-background-color:#111418; }
+                    .split-pane { -fx-background-color:#111418; } .split-pane-divider { -fx-background-color:#2a2f36; }
+                    .slider .track { -fx-background-color:#2a2f36; -fx-pref-height:4; }
+                    .slider .thumb { -fx-background-color:#2f6feb; -fx-background-radius:50%; -fx-padding:8; }
+                    .time-label { -fx-font-family:"JetBrains Mono","D2Coding","Consolas",monospace; -fx-font-size:13px; -fx-text-fill:#cfd3da; }
+                    .folder-label { -fx-text-fill:#9aa3af; -fx-font-weight:600; }
+                    .scan-label { -fx-font-size:12px; -fx-text-fill:#9aa3af; }
+                """;
+                try {
+                    Path tmp = Files.createTempFile("style-fallback-", ".css");
+                    Files.writeString(tmp, css);
+                    String uri = tmp.toUri().toString();
+                    System.out.println("[CSS] Generated temp stylesheet: " + uri);
+                    scene.getStylesheets().add(uri);
+                } catch (Exception ex) {
+                    throw new IllegalStateException("styles.css를 찾거나 생성할 수 없음: " + ex.getMessage(), ex);
+                }
+            }
+        }
+
+        stage.setScene(scene);
+        stage.show();
+
+        scene.setOnKeyPressed(e -> {
+            if (e.getCode() == KeyCode.SPACE) togglePlayPause();
+            else if (e.getCode() == KeyCode.RIGHT) playNext();
+            else if (e.getCode() == KeyCode.LEFT) playPrevious();
+            else if (e.getCode() == KeyCode.R) {
+                repeatMode.set(repeatMode.get().next());
+                updateRepeatButtonText();
+            }
+            else if (e.getCode() == KeyCode.S) shuffleBtn.setSelected(!shuffleBtn.isSelected());
+            else if (e.getCode() == KeyCode.F3) metricsOverlay.toggle();
+            else if (e.getCode() == KeyCode.F4) exportMetrics();
+        });
+
+        playlist.addListener((Observable x) -> sessionDirty = true);
+        for (Observable o : List.of(currentIndex, repeatMode, volumeSlider.valueProperty())) {
+            o.addListener(x -> stateDirty = true);
+        }
+        sessionSaver.setCycleCount(Animation.INDEFINITE);
+        sessionSaver.play();
+
+        player.addListener((obs, oldP, newP) -> {
+            if (oldP != null) {
+                seekScheduler.detach(oldP);
+                oldP.statusProperty().removeListener(statusListener);
+                oldP.setOnEndOfMedia(null);
+                oldP.dispose();
+            }
+            if (newP != null) {
+                newP.statusProperty().addListener(statusListener);
+                newP.setOnEndOfMedia(this::onEndOfMedia);
+                newP.setVolume(effectiveVolume());
+                seekScheduler.attach(newP);
+                seekSlider.setDisable(false);
+            } else {
+                seekSlider.setDisable(true);
+                progressTicker.stop();
+            }
+        });
+
+        restoreSession();
+    }
+
+    private void chooseFolder(Stage stage) {
+        DirectoryChooser chooser = new DirectoryChooser();
+        chooser.setTitle("음악 폴더 선택");
+        File dir = chooser.showDialog(stage);
+        if (dir == null) return;
+
+        cancelScan();
+        stopWatcher();
+        stopAndClear();
+        currentIndex.set(-1);
+        playlist.setAllIds(new int[0]);
+        order.reset();
+        updateQueueLabel();
+        clearDuplicates();
+        libraryRoot = dir.toPath();
+        playlistSession = false;
+        importGen++;
+        loudnessGen++;
+        if (sortKey == null) {
+            // 재생목록 파일 순서였으면 폴더는 경로순으로
+            sortKey = TrackStore.SortKey.PATH;
+            sortBox.setValue(sortKey);
+        }
+
+        // 상단 왼쪽에 폴더명 표시
+        folderLabel.setText(dir.toPath().getFileName().toString());
+        trackLabel.setText("폴더를 읽는 중...");
+        scanLabel.setText("스캔 중...");
+        setScanning(true);
+        autoPlayOnScan = true;
+
+        // 콜백은 FX 스레드에서 이 스캔이 아직 현재 스캔일 때만 반영한다(다른 폴더를 고르면 늦게 온 배치는 버린다)
+        LibraryScanner.Scan[] self = new LibraryScanner.Scan[1];
+        LibraryScanner.Scan scan = scanner.scan(dir.toPath(), new LibraryScanner.Listener() {
+            @Override
+            public void onBatch(List<Path> batch, long filesFound, long dirsVisited) {
+                Platform.runLater(() -> {
+                    if (activeScan != self[0] || self[0].isCancelled()) return;
+                    int[] ids = intern(batch);
+                    insertSorted(ids);
+                    indexInBackground(ids);
+                    scanLabel.setText(String.format("스캔 중 · %,d곡 / %,d폴더", filesFound, dirsVisited));
+                    // 첫 곡은 전체 탐색을 기다리지 않고 바로 재생
+                    if (autoPlayOnScan && !playlist.isEmpty()) {
+                        autoPlayOnScan = false;
+                        playAt(0);
+                    }
+                });
+            }
+
+            @Override
+            public void onDone(boolean cancelled, long filesFound) {
+                Platform.runLater(() -> onScanFinished(self[0], cancelled, filesFound));
+            }
+        });
+        self[0] = scan;
+        activeScan = scan;
+        // 스캔과 함께 감시를 건다. 스캔 도중의 변화도 이벤트로 오고, 등록 때의 전체 목록으로 한 번 맞춘다.
+        startWatcher(libraryRoot);
+    }
+
+    private int[] intern(List<Path> tracks) {
+        int[] ids = new int[tracks.size()];
+        for (int i = 0; i < ids.length; i++) ids[i] = store.intern(tracks.get(i));
+        return ids;
+    }
+
+    // 바뀐 파일만 태그를 다시 읽고, 저장소 열은 FX 스레드에서 묶음 단위로 채운 뒤 리스트를 한 번에 갱신
+    private void indexInBackground(int[] ids) {
+        if (ids.length == 0) return;
+        List<Path> paths = store.paths(ids);
+        CompletableFuture<Void> task = indexLoaded.thenRunAsync(() -> {
+            for (int from = 0; from < ids.length; from += TAG_BATCH) {
+                int to = Math.min(ids.length, from + TAG_BATCH);
+                MetadataIndex.Entry[] entries = new MetadataIndex.Entry[to - from];
+                boolean[] unplayable = new boolean[to - from];
+                for (int i = from; i < to; i++) {
+                    Path p = paths.get(i);
+                    MetadataIndex.Entry e = metadataIndex.getOrRead(p);
+                    if (e == null) continue;
+                    entries[i - from] = e;
+                    unplayable[i - from] = !playableFormat(p, e);
+                    searchIndex.add(ids[i], e.title, e.artist, e.album, TrackFiles.baseName(p), e.lyricsWords);
+                }
+                int base = from;
+                Platform.runLater(() -> {
+                    for (int i = 0; i < entries.length; i++) {
+                        MetadataIndex.Entry e = entries[i];
+                        if (e != null) store.setTags(ids[base + i], e.title, e.artist, e.artHash, unplayable[i]);
+                    }
+                });
+            }
+            requestListRefresh();
+        }, metadataExecutor);
+        indexing = CompletableFuture.allOf(indexing, task);
+    }
+
+    private void applySearch() {
+        IntPredicate matcher = searchIndex.matcher(searchField.getText());
+        if (hiddenDuplicates.isEmpty()) {
+            visibleTracks.setPredicate(matcher == null ? null : id -> matcher.test(id));
+        } else {
+            visibleTracks.setPredicate(id -> !hiddenDuplicates.get(id) && (matcher == null || matcher.test(id)));
+        }
+        syncListSelection();
+    }
+
+    // 같은 곡들을 순열로 재배치하고, 재생 중인 곡은 새 위치를 따라간다
+    private void applySort(TrackStore.SortKey key) {
+        sortKey = key;
+        int cur = currentIndex.get();
+        int curId = cur >= 0 && cur < playlist.size() ? playlist.idAt(cur) : -1;
+        playlist.permute(store.sorted(playlist.ids(), key));
+        if (curId >= 0) currentIndex.set(playlist.indexOf(curId));
+        syncListSelection();
+        if (player.get() != null) preloader.prepare(upcomingTracks());
+        sessionDirty = true;
+    }
+
+    // 현재 곡이 보이는 목록에 있으면 선택, 걸러져 있으면 선택 해제
+    private void syncListSelection() {
+        int cur = currentIndex.get();
+        int viewIdx = cur >= 0 && cur < playlist.size() ? visibleTracks.getViewIndex(cur) : -1;
+        if (viewIdx >= 0) {
+            listView.getSelectionModel().select(viewIdx);
+        } else {
+            listView.getSelectionModel().clearSelection();
+        }
+    }
+
+    private void requestListRefresh() {
+        Platform.runLater(() -> {
+            if (listRefreshPending) return;
+            listRefreshPending = true;
+            Platform.runLater(() -> {
+                listRefreshPending = false;
+                // 검색 중이면 새로 색인된 트랙도 결과에 들어오도록 필터를 다시 건다
+                if (visibleTracks.getPredicate() != null) applySearch();
+                else listView.refresh();
+            });
+        });
+    }
+
+    private void onScanFinished(LibraryScanner.Scan scan, boolean cancelled, long filesFound) {
+        if (activeScan != scan) return;   // 다른 폴더로 바뀐 뒤 끝난 스캔
+        setScanning(false);
+        activeScan = null;
+        autoPlayOnScan = false;
+        scanLabel.setText(cancelled
+                ? String.format("스캔 중지됨 · %,d곡", playlist.size())
+                : String.format("%,d곡", playlist.size()));
+        indexLoaded.thenRunAsync(metadataIndex::saveIfDirty, metadataExecutor);
+        resortWhenIndexed();
+        analyzeLoudness(store.paths(playlist.ids()));
+        if (!cancelled && playlist.isEmpty()) {
+            trackLabel.setText("선택한 폴더에 음악 파일 없음");
+            currentIndex.set(-1);
+            stopAndClear();
+        }
+    }
+
+    // 폴더를 다시 훑지 않고 파일 시스템 변경분만 재생목록에 반영.
+    // 콜백은 이 감시자가 아직 현재 감시자일 때만 반영한다(폴더를 바꾼 뒤 늦게 온 목록은 버린다).
+    private void startWatcher(Path root) {
+        stopWatcher();
+        if (root == null) return;
+        try {
+            LibraryWatcher[] self = new LibraryWatcher[1];
+            self[0] = watcher = new LibraryWatcher(root, TrackFiles::isTrackFile,
+                    changes -> Platform.runLater(() -> {
+                        if (watcher == self[0]) applyLibraryChanges(changes);
+                    }));
+            watcher.start();
+        } catch (Exception ex) {
+            watcher = null;
+        }
+    }
+
+    private void stopWatcher() {
+        if (watcher != null) {
+            watcher.close();
+            watcher = null;
+        }
+    }
+
+    private void applyLibraryChanges(LibraryWatcher.Changes changes) {
+        List<Path> fresh = changes.added;
+        // 감시자의 전체 목록이 아직 돌고 있는 스캔보다 먼저 오면 그 목록이 스캔을 대신한다
+        LibraryScanner.Scan superseded = changes.resync ? activeScan : null;
+        if (superseded != null) superseded.cancel();
+        if (changes.resync) {
+            // 전체 목록과 대조: 없는 곡은 빼고, 목록에 없던 곡만 새로 넣는다
+            BitSet present = new BitSet();
+            fresh = new ArrayList<>();
+            for (Path p : changes.added) {
+                int id = store.find(p);
+                if (id >= 0) present.set(id);
+                if (id < 0 || !playlist.contains(id)) fresh.add(p);
+            }
+            removeIf(id -> !present.get(id));
+        } else {
+            removeTracks(changes.removed);
+        }
+        int[] added = intern(fresh);
+        insertSorted(added);
+        indexInBackground(added);
+        if (changes.resync && added.length > 0) resortWhenIndexed();
+        for (Path p : changes.modified) {
+            metadataCache.invalidate(p);
+            // 고쳐졌을 수 있으니 격리를 풀고 다시 점검 받게 한다
+            quarantine.remove(store.find(p));
+            validator.forget(p);
+        }
+        indexInBackground(intern(changes.modified));
+        analyzeLoudness(fresh);
+        analyzeLoudness(changes.modified);
+
+        if (player.get() != null) preloader.prepare(upcomingTracks());
+        scanLabel.setText(String.format("%,d곡", playlist.size()));
+        if (superseded != null) {
+            if (autoPlayOnScan && !playlist.isEmpty()) {
+                autoPlayOnScan = false;
+                playAt(0);
+            }
+            onScanFinished(superseded, false, playlist.size());
+        }
+    }
+
+    // 보정값이 없는(태그도 분석 결과도 없는) 트랙만 골라 낮은 우선순위로 분석한다.
+    // 잴 수 없었던 파일은 디코더 구성이 그때와 달라졌을 때만 다시 시도한다.
+    private void analyzeLoudness(List<Path> tracks) {
+        if (tracks.isEmpty()) return;
+        int gen = loudnessGen;
+        indexLoaded.thenRunAsync(() -> {
+            int stamp = LoudnessAnalyzer.decoderStamp();
+            Map<Path, MetadataIndex.Entry> pending = new HashMap<>();
+            for (Path p : tracks) {
+                MetadataIndex.Entry e = metadataIndex.getOrRead(p);
+                if (e != null && Float.isNaN(e.trackGainDb) && e.loudnessStamp != stamp) pending.put(p, e);
+            }
+            if (pending.isEmpty()) return;
+            loudness.analyzeAll(new ArrayList<>(pending.keySet()), (track, gainDb) -> {
+                if (Float.isNaN(gainDb)) {
+                    // 보정 없이 재생(gainOf가 0 dB로 본다)
+                    metadataIndex.setLoudnessUnmeasurable(track, pending.get(track), stamp);
+                    return;
+                }
+                metadataIndex.setTrackGain(track, pending.get(track), gainDb);
+                Platform.runLater(() -> {
+                    int cur = currentIndex.get();
+                    if (cur >= 0 && cur < playlist.size() && playlist.idAt(cur) == store.find(track)) {
+                        currentGainDb = gainDb;
+                        applyVolume();
+                    }
+                });
+            }, () -> loudnessGen != gen);
+        }, metadataExecutor);
+    }
+
+    private static float gainOf(MetadataIndex.Entry e) {
+        return e == null || Float.isNaN(e.trackGainDb) ? 0f : e.trackGainDb;
+    }
+
+    // 사용자 볼륨 × 트랙 보정(dB → 배율). 양의 보정은 1.0에서 잘린다.
+    private double effectiveVolume() {
+        double v = volumeSlider.getValue();
+        if (!normalizeBox.isSelected()) return v;
+        return Math.max(0, Math.min(1, v * Math.pow(10, currentGainDb / 20.0)));
+    }
+
+    private void applyVolume() {
+        MediaPlayer mp = player.get();
+        if (mp != null) mp.setVolume(effectiveVolume());
+    }
+
+    // 삭제된 파일(또는 폴더 아래 전부)을 뺀다. 저장소에 없는 경로는 지워진 폴더로 본다.
+    private void removeTracks(List<Path> removed) {
+        if (removed.isEmpty() || playlist.isEmpty()) return;
+        BitSet gone = new BitSet();
+        List<Path> goneDirs = new ArrayList<>();
+        for (Path r : removed) {
+            int id = store.find(r);
+            if (id >= 0) gone.set(id);
+            else goneDirs.add(r);
+        }
+        removeIf(id -> {
+            if (gone.get(id)) return true;
+            for (Path dir : goneDirs) if (store.isUnder(id, dir)) return true;
+            return false;
+        });
+    }
+
+    // 조건에 맞는 곡을 빼고 currentIndex를 그만큼 당긴다.
+    // 재생 중인 곡이 빠지면 그 앞 곡을 현재 위치로 삼아 '다음'이 이어지게 한다.
+    private void removeIf(IntPredicate dropId) {
+        BitSet drop = new BitSet(playlist.size());
+        for (int i = 0; i < playlist.size(); i++) {
+            if (dropId.test(playlist.idAt(i))) drop.set(i);
+        }
+        if (drop.isEmpty()) return;
+        int cur = currentIndex.get();
+        boolean currentGone = cur >= 0 && drop.get(cur);
+        int newCur = cur - (cur >= 0 ? drop.get(0, cur).cardinality() : 0);
+        for (int i = drop.previousSetBit(playlist.size() - 1); i >= 0; ) {
+            int end = i + 1;
+            int start = i;
+            while (start > 0 && drop.get(start - 1)) start--;
+            playlist.removeIds(start, end);
+            i = drop.previousSetBit(start - 1);
+        }
+        if (cur >= 0) currentIndex.set(currentGone ? newCur - 1 : newCur);
+    }
+
+    // 스캔 중지 버튼: 취소만 걸고 마무리(라벨, 인덱스 저장 등)는 onDone에서.
+    // 감시도 멈춘다(등록 순회가 끝나면 폴더 전체를 다시 맞추게 되므로).
+    private void stopScan() {
+        if (activeScan == null) return;
+        activeScan.cancel();
+        setScanning(false);
+        stopWatcher();
+    }
+
+    // 목록을 통째로 바꾸기 전: 진행 중인 스캔을 버린다. 늦게 오는 콜백은 activeScan과 달라서 무시된다.
+    private void cancelScan() {
+        if (activeScan != null) {
+            activeScan.cancel();
+            activeScan = null;
+            setScanning(false);
+            scanLabel.setText(String.format("스캔 중지됨 · %,d곡", playlist.size()));
+        }
+    }
+
+    private void setScanning(boolean scanning) {
+        cancelScanBtn.setVisible(scanning);
+        cancelScanBtn.setManaged(scanning);
+    }
+
+    // 경로순이면 정렬된 배치를 정렬 위치에 끼워 넣는다(연속 구간은 한 번에).
+    // 제목/아티스트순이면 아직 태그가 없으니 뒤에 붙이고, 스캔이 끝난 뒤 다시 정렬한다.
+    private void insertSorted(int[] batch) {
+        if (sortKey != TrackStore.SortKey.PATH) {
+            int[] fresh = Arrays.stream(batch).filter(id -> !playlist.contains(id)).distinct().toArray();
+            playlist.insert(playlist.size(), fresh, 0, fresh.length);
+            return;
+        }
+        int i = 0;
+        while (i < batch.length) {
+            if (playlist.contains(batch[i])) { i++; continue; }
+            int pos = insertionPoint(store.path(batch[i]));
+            Path bound = pos < playlist.size() ? store.path(playlist.idAt(pos)) : null;
+            int j = i + 1;
+            while (j < batch.length && !playlist.contains(batch[j]) && batch[j] != batch[j - 1]
+                    && (bound == null || store.path(batch[j]).compareTo(bound) < 0)) j++;
+            playlist.insert(pos, batch, i, j);
+            int cur = currentIndex.get();
+            if (cur >= 0 && pos <= cur) currentIndex.set(cur + (j - i));
+            i = j;
+        }
+    }
+
+    private int insertionPoint(Path track) {
+        int lo = 0, hi = playlist.size();
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (store.path(playlist.idAt(mid)).compareTo(track) < 0) lo = mid + 1;
+            else hi = mid;
+        }
+        return lo;
+    }
+
+    // 태그 기준 정렬은 인덱싱이 끝나 저장소 열이 채워진 뒤에 다시 한다
+    private void resortWhenIndexed() {
+        if (sortKey == null || sortKey == TrackStore.SortKey.PATH) return;
+        indexing.thenRun(() -> Platform.runLater(() -> {
+            if (sortKey != null && sortKey != TrackStore.SortKey.PATH) applySort(sortKey);
+        }));
+    }
+
+    // ---- 재생목록 파일 ----
+
+    // 목록을 파일 순서 그대로 바꾼다(정렬 해제). 읽기와 존재 확인은 워커에서, 목록 반영은 배치마다.
+    private void importPlaylist(Stage stage) {
+        FileChooser chooser = new FileChooser();
+        chooser.setTitle("재생목록 열기");
+        chooser.getExtensionFilters().add(
+                new FileChooser.ExtensionFilter("재생목록 (*.m3u, *.m3u8, *.pls)", "*.m3u", "*.m3u8", "*.pls"));
+        File chosen = chooser.showOpenDialog(stage);
+        if (chosen == null) return;
+        Path file = chosen.toPath().toAbsolutePath();
+
+        cancelScan();
+        stopWatcher();
+        stopAndClear();
+        currentIndex.set(-1);
+        playlist.setAllIds(new int[0]);
+        order.reset();
+        updateQueueLabel();
+        clearDuplicates();
+        libraryRoot = file.getParent();
+        playlistSession = true;
+        loudnessGen++;
+        sortKey = null;
+        sortBox.setValue(null);
+
+        folderLabel.setText(file.getFileName().toString());
+        trackLabel.setText("재생목록을 읽는 중...");
+        scanLabel.setText("목록 읽는 중...");
+        autoPlayOnScan = true;
+        int gen = ++importGen;
+        int[] reported = {0};
+
+        CompletableFuture.runAsync(() -> {
+            try {
+                PlaylistFile.read(file, new PlaylistFile.Listener() {
+                    @Override
+                    public void onBatch(List<Path> found, List<String> missing) {
+                        Platform.runLater(() -> {
+                            if (gen != importGen) return;
+                            int[] ids = intern(found);
+                            insertSorted(ids);   // 정렬 해제 상태라 뒤에 붙고, 같은 곡은 한 번만
+                            indexInBackground(ids);
+                            // 없는 항목이 아주 많아도 패널에는 앞쪽 일부만
+                            for (String m : missing) {
+                                if (reported[0]++ < MISSING_REPORT_LIMIT) problemPanel.report(m, "찾을 수 없음");
+                            }
+                            scanLabel.setText(String.format("목록 읽는 중 · %,d곡", playlist.size()));
+                            if (autoPlayOnScan && !playlist.isEmpty()) {
+                                autoPlayOnScan = false;
+                                playAt(0);
+                            }
+                        });
+                    }
+
+                    @Override
+                    public void onDone(int found, int missing) {
+                        Platform.runLater(() -> {
+                            if (gen == importGen) onImportFinished(missing);
+                        });
+                    }
+                }, () -> gen != importGen);
+            } catch (IOException | RuntimeException ex) {
+                Platform.runLater(() -> {
+                    if (gen != importGen) return;
+                    autoPlayOnScan = false;
+                    trackLabel.setText("재생목록을 읽을 수 없음");
+                    scanLabel.setText("");
+                    problemPanel.report(file, "재생목록 읽기 실패: " + ex.getMessage());
+                });
+            }
+        });
+    }
+
+    private void onImportFinished(int missing) {
+        autoPlayOnScan = false;
+        scanLabel.setText(missing > 0
+                ? String.format("%,d곡 · 없는 항목 %,d개", playlist.size(), missing)
+                : String.format("%,d곡", playlist.size()));
+        indexLoaded.thenRunAsync(metadataIndex::saveIfDirty, metadataExecutor);
+        analyzeLoudness(store.paths(playlist.ids()));
+        if (playlist.isEmpty()) {
+            trackLabel.setText("재생목록에 재생할 곡 없음");
+            stopAndClear();
+        }
+    }
+
+    // 지금 목록 순서대로 저장. #EXTINF 제목/길이는 인덱스에 있는 태그에서.
+    private void exportPlaylist(Stage stage) {
+        if (playlist.isEmpty()) return;
+        FileChooser chooser = new FileChooser();
+        chooser.setTitle("재생목록 저장");
+        FileChooser.ExtensionFilter m3u8 = new FileChooser.ExtensionFilter("M3U8 (*.m3u8)", "*.m3u8");
+        chooser.getExtensionFilters().addAll(m3u8,
+                new FileChooser.ExtensionFilter("M3U (*.m3u)", "*.m3u"),
+                new FileChooser.ExtensionFilter("PLS (*.pls)", "*.pls"));
+        chooser.setSelectedExtensionFilter(m3u8);
+        if (libraryRoot != null && Files.isDirectory(libraryRoot)) chooser.setInitialDirectory(libraryRoot.toFile());
+        String name = folderLabel.getText();
+        int dot = name.lastIndexOf('.');
+        chooser.setInitialFileName((playlistSession && dot > 0 ? name.substring(0, dot) : name) + ".m3u8");
+        File chosen = chooser.showSaveDialog(stage);
+        if (chosen == null) return;
+        Path file = chosen.toPath();
+        if (!PlaylistFile.isPlaylistFile(file)) {
+            // 확장자를 안 붙였으면 고른 형식으로
+            FileChooser.ExtensionFilter f = chooser.getSelectedExtensionFilter();
+            String ext = f != null ? f.getExtensions().get(0).substring(1) : ".m3u8";
+            file = file.resolveSibling(file.getFileName() + ext);
+        }
+
+        Path target = file;
+        List<Path> tracks = store.paths(playlist.ids());
+        scanLabel.setText("목록 저장 중...");
+        indexLoaded.thenRunAsync(() -> {
+            String result;
+            try {
+                PlaylistFile.write(target, tracks, metadataIndex);
+                result = String.format("목록 저장 · %s (%,d곡)", target.getFileName(), tracks.size());
+            } catch (IOException ex) {
+                result = "목록 저장 실패: " + ex.getMessage();
+            }
+            String text = result;
+            Platform.runLater(() -> scanLabel.setText(text));
+        });
+    }
+
+    // ---- 중복 찾기 ----
+
+    // 지금 목록 전체를 워커 풀에서 훑는다. 결과가 올 때 목록에서 빠진 곡은 묶음에서 뺀다.
+    private void findDuplicates() {
+        if (playlist.isEmpty()) return;
+        int[] ids = playlist.ids();
+        List<Path> tracks = store.paths(ids);
+        int gen = ++duplicateGen;
+        findDuplicatesBtn.setDisable(true);
+        scanLabel.setText(String.format("중복 찾는 중 · %,d곡", ids.length));
+        indexLoaded.thenRun(() -> duplicateFinder.find(tracks, (groups, cancelled) -> {
+            indexLoaded.thenRunAsync(metadataIndex::saveIfDirty, metadataExecutor);
+            Platform.runLater(() -> {
+                if (gen != duplicateGen) return;
+                findDuplicatesBtn.setDisable(false);
+                if (cancelled) return;
+                List<int[]> byId = new ArrayList<>(groups.size());
+                for (int[] g : groups) {
+                    int[] members = new int[g.length];
+                    int n = 0;
+                    for (int i : g) if (playlist.contains(ids[i])) members[n++] = ids[i];
+                    if (n >= 2) byId.add(Arrays.copyOf(members, n));
+                }
+                duplicatePanel.show(byId, store::displayTitle, id -> store.path(id).toString());
+                scanLabel.setText(byId.isEmpty()
+                        ? String.format("%,d곡 · 중복 없음", playlist.size())
+                        : String.format("%,d곡 · 중복 %,d묶음", playlist.size(), byId.size()));
+            });
+        }, () -> gen != duplicateGen));
+    }
+
+    private void clearDuplicates() {
+        duplicateGen++;
+        findDuplicatesBtn.setDisable(false);
+        duplicatePanel.clear();
+    }
+
+    private void applyDuplicateCollapse() {
+        hiddenDuplicates.clear();
+        duplicatePanel.forEachHidden(hiddenDuplicates::set);
+        applySearch();
+        if (player.get() != null) preloader.prepare(upcomingTracks());
+    }
+
+    private void playId(int id) {
+        int pos = playlist.indexOf(id);
+        if (pos >= 0) playAt(pos);
+    }
+
+    private void playAt(int index) {
+        playAt(index, true, 0);
+    }
+
+    // autoPlay가 false면 startMs 위치에 세워 두기만 한다(세션 복원)
+    private void playAt(int index, boolean autoPlay, long startMs) {
+        if (index < 0 || index >= playlist.size()) return;
+        int id = playlist.idAt(index);
+        Path track = store.path(id);
+        if (!isPlayableId(id)) {
+            String reason = quarantine.get(id);
+            trackLabel.setText(reason != null ? "건너뛴 파일: " + reason
+                    : "재생할 수 없는 형식: " + describeFormat(track));
+            return;
+        }
+        currentIndex.set(index);
+        order.started(id);
+        updateQueueLabel();
+        syncListSelection();
+        int viewIdx = visibleTracks.getViewIndex(index);
+        if (viewIdx >= 0) listView.scrollTo(viewIdx);
+
+        currentGainDb = gainOf(metadataIndex.peek(track));
+        playAtNanos = System.nanoTime();
+        readyNanos = 0;
+        trackStartEvent = null;
+        if (autoPlay) {
+            trackStartEvent = new PlayerEvents.TrackStart();
+            trackStartEvent.begin();
+            trackStartEvent.path = track.toString();
+        }
+        loadTrackInfo(track);
+
+        try {
+            // 미리 준비해 둔 플레이어가 있으면 그대로 넘겨받아 바로 재생
+            MediaPlayer prepared = preloader.take(track);
+            if (trackStartEvent != null) trackStartEvent.preloaded = prepared != null;
+            MediaPlayer mp = prepared != null ? prepared : new MediaPlayer(new Media(track.toUri().toString()));
+            mp.setOnError(() -> onPlayerError(mp, track));
+            player.set(mp);
+
+            Runnable start = () -> {
+                readyNanos = System.nanoTime() - playAtNanos;
+                Metrics.MEDIA_READY.record(readyNanos, track);
+                Duration total = mp.getTotalDuration();
+                progressTicker.show(startMs / 1000, (long) total.toSeconds());
+                setSeekRange(mp);
+                if (startMs > 0) seekTo(mp, Duration.millis(startMs));
+                if (autoPlay) {
+                    mp.play();
+                    playPauseBtn.setText("일시정지");
+                }
+                preloader.prepare(upcomingTracks());
+                validateAhead();
+            };
+            if (mp.getStatus() == Status.READY) start.run();
+            else mp.setOnReady(start);
+        } catch (Exception ex) {
+            skipBroken(track, "재생 불가: " + ex.getMessage());
+        }
+    }
+
+    private void onPlayerError(MediaPlayer mp, Path track) {
+        if (player.get() != mp) return;
+        skipBroken(track, "재생 중 오류: " + mp.getError().getMessage());
+    }
+
+    // 재귀하지 않고 다음 펄스에서 넘어간다. 격리된 곡은 다음 곡 찾기에서 빠지므로 연쇄 실패도 한 칸씩 진행된다.
+    private void skipBroken(Path track, String reason) {
+        quarantine(track, reason);
+        Platform.runLater(this::playNext);
+    }
+
+    private void quarantine(Path track, String reason) {
+        int id = store.find(track);
+        if (id < 0 || quarantine.putIfAbsent(id, reason) != null) return;
+        problemPanel.report(track, reason);
+        listView.refresh();
+        if (player.get() != null) preloader.prepare(upcomingTracks());
+    }
+
+    private void validateAhead() {
+        int[] ahead = order.upcoming(playlist, currentIndex.get(), repeatMode.get(), VALIDATE_AHEAD, this::isPlayable);
+        List<Path> tracks = new ArrayList<>(ahead.length);
+        for (int i : ahead) tracks.add(store.path(playlist.idAt(i)));
+        validator.submit(tracks);
+    }
+
+    // 제목/가사를 워커 스레드에서 한 번에 읽고, 아직 같은 곡이면 화면에 반영
+    private void loadTrackInfo(Path track) {
+        int seq = ++trackInfoSeq;
+        clearLyrics();
+        // 오른쪽 상단에 현재 곡 제목 표시(인덱스에 있으면 태그 제목, 없으면 파일명)
+        MetadataIndex.Entry indexed = metadataIndex.peek(track);
+        String quickTitle = indexed != null ? indexed.displayTitle() : null;
+        trackLabel.setText(quickTitle != null ? quickTitle : TrackFiles.baseName(track));
+        showArtwork(track, seq);
+
+        CompletableFuture.supplyAsync(() -> {
+            TrackMetadata meta = metadataCache.getOrRead(track);
+            metadataIndex.record(meta);
+            return meta;
+        }, trackInfoExecutor).thenAcceptAsync(meta -> {
+            List<LyricLine> lines = readLyricLines(track, meta);
+            Platform.runLater(() -> {
+                if (seq != trackInfoSeq) return;
+                trackLabel.setText(meta.displayTitle());
+                showArtwork(track, seq);
+                showLyrics(lines);
+            });
+        }, trackInfoExecutor);
+    }
+
+    // 인덱스의 아트워크 해시로 축소판을 찾고, 아직 해시를 모르면 태그를 읽은 뒤 다시 호출된다
+    private void showArtwork(Path track, int seq) {
+        MetadataIndex.Entry e = metadataIndex.peek(track);
+        long hash = e != null ? e.artHash : 0;
+        Image img = hash > 0 ? artwork.get(hash) : null;
+        artView.setImage(img);
+        if (hash > 0 && img == null) {
+            artwork.request(hash, track, im -> {
+                if (seq == trackInfoSeq) artView.setImage(im);
+            });
+        }
+    }
+
+    private void togglePlayPause() {
+        MediaPlayer mp = player.get();
+        if (mp == null) return;
+        if (mp.getStatus() == Status.PLAYING) {
+            mp.pause();
+            playPauseBtn.setText("재생");
+        } else {
+            mp.play();
+            playPauseBtn.setText("일시정지");
+        }
+    }
+
+    // 현재 곡 다음으로 재생될 곡들(대기열, 셔플, 반복 모드 기준)
+    private List<Path> upcomingTracks() {
+        int[] next = order.upcoming(playlist, currentIndex.get(), repeatMode.get(),
+                preloader.lookahead(), this::isPlayable);
+        List<Path> out = new ArrayList<>(next.length);
+        for (int i : next) out.add(store.path(playlist.idAt(i)));
+        return out;
+    }
+
+    private void playNext() {
+        if (playlist.isEmpty()) return;
+        int next = order.next(playlist, currentIndex.get(), repeatMode.get(), this::isPlayable);
+        if (next >= 0) playAt(next);
+        else stopPlaybackKeepPosition();
+    }
+
+    private void playPrevious() {
+        if (playlist.isEmpty()) return;
+        int prev = order.previous(playlist, currentIndex.get(), repeatMode.get(), this::isPlayable);
+        if (prev >= 0) playAt(prev);
+        else stopPlaybackKeepPosition();
+    }
+
+    // 접어 둔 중복 곡은 목록에서 골라야만 재생한다
+    private boolean isPlayable(int index) {
+        int id = playlist.idAt(index);
+        return !hiddenDuplicates.get(id) && isPlayableId(id);
+    }
+
+    // 인덱싱 때 판별해 둔 저장소 플래그 기준. 아직 인덱싱 전이면 확장자로 짐작한다.
+    private boolean isPlayableId(int id) {
+        if (quarantine.containsKey(id)) return false;
+        if (store.isTagged(id)) return !store.isUnplayable(id);
+        return AudioFormats.hasPlayableExtension(store.path(id));
+    }
+
+    // 워커 스레드에서 호출: 머리 바이트로 판별한 형식 기준, 모르는 형식이면 확장자로
+    private static boolean playableFormat(Path track, MetadataIndex.Entry e) {
+        if (e.format == null || e.format.isEmpty()) return AudioFormats.hasPlayableExtension(track);
+        return AudioFormats.isPlayable(track, AudioFormats.byName(e.format));
+    }
+
+    private String describeFormat(Path track) {
+        MetadataIndex.Entry e = metadataIndex.peek(track);
+        String ext = AudioFormats.extensionOf(track);
+        if (e == null || e.format == null || e.format.isEmpty()) return ext.isEmpty() ? "알 수 없음" : ext;
+        AudioFormats.Format f = AudioFormats.byName(e.format);
+        if (f != null && f.playable && !f.extensions.contains(ext)) return e.format + " (확장자 ." + ext + ")";
+        return e.format;
+    }
+
+    private void onEndOfMedia() {
+        if (repeatMode.get() == RepeatMode.REPEAT_ONE) {
+            MediaPlayer mp = player.get();
+            if (mp != null) {
+                seekTo(mp, Duration.ZERO);
+                mp.play();
+            }
+        } else playNext();
+    }
+
+    private void stopAndClear() {
+        preloader.clear();
+        MediaPlayer mp = player.get();
+        if (mp != null) {
+            mp.stop();
+            player.set(null);
+        }
+        seekSlider.setValue(0);
+        progressTicker.show(0, 0);
+        playPauseBtn.setText("재생");
+        artView.setImage(null);
+        clearLyrics();
+    }
+
+    private void stopPlaybackKeepPosition() {
+        MediaPlayer mp = player.get();
+        if (mp != null) {
+            mp.stop();
+            playPauseBtn.setText("재생");
+        }
+    }
+
+    // 선택한 곡을 대기열에 넣는다. 맨 앞에 넣을 때는 선택 순서가 유지되도록 거꾸로 넣는다.
+    private void enqueueSelected(boolean playNow) {
+        List<Integer> selected = new ArrayList<>(listView.getSelectionModel().getSelectedItems());
+        if (selected.isEmpty()) return;
+        if (playNow) Collections.reverse(selected);
+        for (int id : selected) order.enqueue(id, playNow);
+        updateQueueLabel();
+        if (player.get() != null) preloader.prepare(upcomingTracks());
+    }
+
+    private void updateQueueLabel() {
+        int n = order.queued();
+        queueLabel.setText(n > 0 ? String.format("대기 %,d곡", n) : "");
+    }
+
+    private void updateRepeatButtonText() {
+        repeatBtn.setText(repeatMode.get().label());
+    }
+
+    private void setSeekRange(MediaPlayer mp) {
+        seekSlider.setMin(0);
+        seekSlider.setMax(mp.getTotalDuration().toSeconds());
+    }
+
+    // 사용자 탐색: 가사 커서도 이진 탐색으로 다시 맞춘다
+    private void seekTo(MediaPlayer mp, Duration target) {
+        mp.seek(target);
+        lyricTimeline.seek((long) target.toMillis());
+        progressTicker.reset();
+        if (!progressTicker.isRunning()) Platform.runLater(progressTicker::sample);
+    }
+
+    private final javafx.beans.value.ChangeListener<Status> statusListener = (obs, oldS, newS) -> {
+        if (newS == Status.PLAYING) {
+            playPauseBtn.setText("일시정지");
+            progressTicker.start();
+            if (trackStartEvent != null) finishTrackStart();
+        } else {
+            playPauseBtn.setText("재생");
+            progressTicker.stop();
+            progressTicker.sample();
+        }
+    };
+
+    // 첫 PLAYING 전환에서 한 번만 기록
+    private void finishTrackStart() {
+        PlayerEvents.TrackStart ev = trackStartEvent;
+        trackStartEvent = null;
+        ev.end();
+        Metrics.TIME_TO_AUDIO.record(System.nanoTime() - playAtNanos, ev.path);
+        ev.readyNanos = readyNanos;
+        ev.commit();
+    }
+
+    private void exportMetrics() {
+        Path file = AppDirs.configDir().resolve("metrics-report.txt");
+        try {
+            Metrics.writeReport(file);
+            scanLabel.setText("측정 보고서 저장: " + file);
+        } catch (Exception ex) {
+            scanLabel.setText("측정 보고서 저장 실패");
+        }
+    }
+
+
+    private void clearLyrics() {
+        lyricTimeline = LyricTimeline.EMPTY;
+        currentLyricIndex = -1;
+        lyricLines.clear();
+    }
+
+    // 워커 스레드에서 호출: 옆에 .lrc가 있으면 그것을, 없으면 내장 가사를 쓴다
+    private List<LyricLine> readLyricLines(Path track, TrackMetadata meta) {
+        Path lrc = TrackFiles.sidecarLrc(track);
+        if (Files.exists(lrc)) {
+            try {
+                List<LyricLine> lines = LrcParser.parse(lrc);
+                if (!lines.isEmpty()) return lines;
+            } catch (Exception e) {
+                Platform.runLater(() -> problemPanel.report(lrc, "LRC 파싱 실패: " + e.getMessage()));
+            }
+        } else if (meta.hasLyrics()) {
+            return meta.lyrics.lines().map(s -> new LyricLine(-1, s)).toList();
+        }
+        return List.of();
+    }
+
+    private void showLyrics(List<LyricLine> lines) {
+        clearLyrics();
+        boolean synced = lines.stream().anyMatch(l -> l.timeSec >= 0);
+        if (lines.isEmpty()) lines = List.of(new LyricLine(-1, "가사가 없습니다"));
+        lyricsSynced.set(synced);
+
+        lyricTimeline = LyricTimeline.of(lines);
+        currentLyricIndex = -1;
+        lyricLines.setAll(lines);
+        lyricsView.scrollTo(0);
+    }
+
+    private void updateLyricsHighlight(long posMs) {
+        if (!lyricsSynced.get() || lyricTimeline.isEmpty()) return;
+        int idx = lyricTimeline.advance(posMs);
+        if (idx != -1 && idx != currentLyricIndex) {
+            currentLyricIndex = idx;
+            Metrics.UI_UPDATES.increment();
+            // 보이는 셀만 다시 그리고, 현재 줄 위로 두어 줄을 남겨 둔 채 따라간다
+            lyricsView.refresh();
+            lyricsView.scrollTo(Math.max(0, idx - 2));
+        }
+    }
+
+    // ---- 세션 스냅샷 ----
+
+    // 스냅샷 목록을 그대로 복원하고, 파일 시스템 대조는 뒤에서 한다
+    private void restoreSession() {
+        SessionSnapshot snap = SessionSnapshot.load(sessionFile);
+        if (snap == null || !Files.isDirectory(snap.root)) return;
+
+        libraryRoot = snap.root;
+        Path name = snap.root.getFileName();
+        folderLabel.setText(name != null ? name.toString() : snap.root.toString());
+        repeatMode.set(snap.repeatMode);
+        updateRepeatButtonText();
+        volumeSlider.setValue(snap.volume);
+        // 저장된 순서가 곧 정렬 결과이므로 다시 정렬하지 않는다
+        sortKey = snap.sortKey;
+        sortBox.setValue(sortKey);
+        int[] restored = intern(snap.tracks());
+        playlist.setAllIds(restored);
+        scanLabel.setText(String.format("%,d곡", playlist.size()));
+        if (snap.currentIndex >= 0 && snap.currentIndex < playlist.size()) {
+            playAt(snap.currentIndex, false, snap.positionMs);
+        } else {
+            trackLabel.setText("재생할 트랙을 선택해 주세요");
+        }
+        sessionDirty = false;
+        stateDirty = false;
+
+        indexInBackground(restored);
+        analyzeLoudness(store.paths(restored));
+        // 재생목록 파일에서 온 세션은 폴더를 다시 훑지 않는다(없어진 곡은 재생 전 점검에서 걸러진다).
+        // 폴더 세션은 따로 스캔하지 않고, 감시자가 등록하며 훑은 전체 목록(resync)으로 사라진 곡/새 곡을 맞춘다.
+        playlistSession = snap.fromPlaylist;
+        if (!playlistSession) startWatcher(libraryRoot);
+    }
+
+    // 재생목록이 바뀌었으면 FX 스레드에서 목록을 복사해 두고 전체를 다시 쓴다.
+    // 재생 중 위치만 바뀌는 주기 저장은 파일 머리의 재생 상태만 고친다. 파일 쓰기는 워커에서(종료 시에는 바로).
+    private void saveSession(boolean now) {
+        if (libraryRoot == null) return;
+        MediaPlayer mp = player.get();
+        boolean playing = mp != null && mp.getStatus() == Status.PLAYING;
+        if (!now && !playing && !sessionDirty && !stateDirty) return;
+        boolean full = sessionDirty;
+        sessionDirty = false;
+        stateDirty = false;
+
+        long posMs = mp != null ? (long) mp.getCurrentTime().toMillis() : 0;
+        int cur = currentIndex.get();
+        RepeatMode mode = repeatMode.get();
+        double volume = volumeSlider.getValue();
+        SessionSnapshot snap = full
+                ? new SessionSnapshot(libraryRoot, store.paths(playlist.ids()), cur, posMs, mode, volume,
+                        sortKey, playlistSession)
+                : null;
+        Runnable write = () -> {
+            synchronized (sessionFile) {
+                try {
+                    if (snap != null) {
+                        snap.save(sessionFile);
+                    } else if (!SessionSnapshot.saveState(sessionFile, cur, posMs, mode, volume)) {
+                        // 저장된 스냅샷이 없거나 예전 형식: 다음 주기에 전체를 쓴다
+                        Platform.runLater(() -> sessionDirty = true);
+                        return;
+                    }
+                    sessionSaveFailed = false;
+                } catch (IOException | RuntimeException ex) {
+                    onSessionSaveFailed(ex);
+                }
+            }
+        };
+        if (now) write.run();
+        else CompletableFuture.runAsync(write);
+    }
+
+    // 다음 주기에 다시 쓰도록 표시하고, 실패가 이어지는 동안 패널에는 한 번만 알린다
+    private void onSessionSaveFailed(Exception ex) {
+        boolean first = !sessionSaveFailed;
+        sessionSaveFailed = true;
+        Platform.runLater(() -> {
+            sessionDirty = true;
+            if (first) problemPanel.report(sessionFile, "세션 저장 실패: " + ex.getMessage());
+        });
+    }
+
+    @Override
+    public void stop() {
+        sessionSaver.stop();
+        saveSession(true);
+        cancelScan();
+        stopWatcher();
+        preloader.clear();
+        scanner.shutdown();
+        loudness.shutdown();
+        validator.shutdown();
+        artwork.shutdown();
+        duplicateFinder.shutdown();
+        metadataExecutor.shutdownNow();
+        trackInfoExecutor.shutdownNow();
+        metadataIndex.saveIfDirty();
+        MediaPlayer mp = player.get();
+        if (mp != null) mp.dispose();
+        Platform.exit();
+    }
+
+    public static void main(String[] args) {
+        launch(args);
+    }
+}
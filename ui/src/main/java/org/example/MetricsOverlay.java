@@ -0,0 +1,65 @@
+package org.example;
+
+import javafx.animation.Animation;
+import javafx.animation.KeyFrame;
+import javafx.animation.Timeline;
+import javafx.geometry.Pos;
+import javafx.scene.control.Label;
+import javafx.scene.layout.StackPane;
+import javafx.util.Duration;
+import jdk.jfr.FlightRecorder;
+
+import java.util.Locale;
+
+/**
+ * {@link Metrics} 요약을 창 오른쪽 위에 겹쳐 보여 주는 라벨(F3로 켜고 끔).
+ * 켜져 있을 때만 1초마다 다시 그린다. UI 갱신률은 JFR 주기 이벤트로도 남긴다.
+ */
+final class MetricsOverlay extends Label {
+
+    private final Timeline refresh = new Timeline(new KeyFrame(Duration.seconds(1), e -> redraw()));
+    private long lastFrames, lastUpdates, lastNanos = System.nanoTime();
+
+    MetricsOverlay() {
+        getStyleClass().add("metrics-overlay");
+        setMouseTransparent(true);
+        setVisible(false);
+        StackPane.setAlignment(this, Pos.TOP_RIGHT);
+        refresh.setCycleCount(Animation.INDEFINITE);
+
+        long[] last = new long[2];
+        FlightRecorder.addPeriodicEvent(PlayerEvents.UiRate.class, () -> {
+            PlayerEvents.UiRate ev = new PlayerEvents.UiRate();
+            long f = Metrics.UI_FRAMES.get();
+            long u = Metrics.UI_UPDATES.get();
+            ev.frames = f - last[0];
+            ev.updates = u - last[1];
+            last[0] = f;
+            last[1] = u;
+            ev.commit();
+        });
+    }
+
+    void toggle() {
+        setVisible(!isVisible());
+        if (isVisible()) {
+            redraw();
+            refresh.play();
+        } else {
+            refresh.stop();
+        }
+    }
+
+    private void redraw() {
+        long now = System.nanoTime();
+        long f = Metrics.UI_FRAMES.get();
+        long u = Metrics.UI_UPDATES.get();
+        double sec = Math.max(1e-3, (now - lastNanos) / 1e9);
+        String rates = String.format(Locale.ROOT, "UI: 프레임 %.0f/s · 갱신 %.1f/s%n",
+                (f - lastFrames) / sec, (u - lastUpdates) / sec);
+        lastFrames = f;
+        lastUpdates = u;
+        lastNanos = now;
+        setText(rates + Metrics.report() + "F4: 보고서 저장");
+    }
+}
@@ -0,0 +1,77 @@
+package org.example;
+
+import javafx.scene.media.Media;
+import javafx.scene.media.MediaPlayer;
+
+import java.nio.file.Path;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 다음에 재생할 곡의 MediaPlayer를 미리 만들어 READY 상태로 대기시킨다.
+ * 곡이 끝나는 순간 새로 만들 필요 없이 바로 넘겨 주므로 곡 사이 공백이 줄어든다.
+ * 준비해 둔 플레이어 수는 lookahead 이하로 유지되고, 필요 없어진 것은 즉시 dispose한다.
+ * FX 스레드에서만 사용한다.
+ */
+final class PlayerPreloader {
+
+    private final int lookahead;
+    private final Map<Path, MediaPlayer> prepared = new LinkedHashMap<>();
+
+    PlayerPreloader(int lookahead) {
+        this.lookahead = Math.max(0, lookahead);
+    }
+
+    /** -Dmp3player.preload=N (기본 1, 최대 4) */
+    static PlayerPreloader fromSystemProperty() {
+        int n = Integer.getInteger("mp3player.preload", 1);
+        return new PlayerPreloader(Math.min(4, n));
+    }
+
+    int lookahead() {
+        return lookahead;
+    }
+
+    /** 준비된 플레이어가 있으면 소유권을 넘긴다. 오류 상태면 버리고 null. */
+    MediaPlayer take(Path track) {
+        MediaPlayer mp = prepared.remove(track);
+        if (mp == null) return null;
+        if (mp.getStatus() == MediaPlayer.Status.HALTED || mp.getError() != null) {
+            mp.dispose();
+            return null;
+        }
+        return mp;
+    }
+
+    /** upcoming 앞쪽 lookahead개만 준비 상태로 맞추고 나머지는 해제한다. */
+    void prepare(List<Path> upcoming) {
+        List<Path> wanted = upcoming.subList(0, Math.min(lookahead, upcoming.size()));
+        Iterator<Map.Entry<Path, MediaPlayer>> it = prepared.entrySet().iterator();
+        while (it.hasNext()) {
+            Map.Entry<Path, MediaPlayer> e = it.next();
+            if (!wanted.contains(e.getKey())) {
+                e.getValue().dispose();
+                it.remove();
+            }
+        }
+        for (Path track : wanted) {
+            if (prepared.containsKey(track)) continue;
+            try {
+                MediaPlayer mp = new MediaPlayer(new Media(track.toUri().toString()));
+                mp.setOnError(() -> {
+                    if (prepared.remove(track, mp)) mp.dispose();
+                });
+                prepared.put(track, mp);
+            } catch (Exception ignored) {
+                // 재생 시점에 다시 시도하면서 오류를 보고한다
+            }
+        }
+    }
+
+    void clear() {
+        for (MediaPlayer mp : prepared.values()) mp.dispose();
+        prepared.clear();
+    }
+}
@@ -0,0 +1,65 @@
+package org.example;
+
+import javafx.collections.FXCollections;
+import javafx.collections.ObservableList;
+import javafx.geometry.Pos;
+import javafx.scene.control.Button;
+import javafx.scene.control.ListView;
+import javafx.scene.control.TitledPane;
+import javafx.scene.layout.HBox;
+import javafx.scene.layout.Priority;
+import javafx.scene.layout.VBox;
+
+import java.nio.file.Path;
+
+/**
+ * 재생 중 건너뛴 파일과 이유를 모아 보여 주는 접이식 패널. 모달 창 없이 재생은 계속된다.
+ * 문제가 하나도 없으면 자리도 차지하지 않는다. FX 스레드에서만 사용한다.
+ */
+final class ProblemPanel extends TitledPane {
+
+    private static final int MAX_ITEMS = 500;
+
+    private final ObservableList<String> items = FXCollections.observableArrayList();
+
+    ProblemPanel() {
+        ListView<String> list = new ListView<>(items);
+        list.setPrefHeight(110);
+        list.setFocusTraversable(false);
+        Button clearBtn = new Button("목록 지우기");
+        clearBtn.setOnAction(e -> clear());
+        HBox actions = new HBox(clearBtn);
+        actions.setAlignment(Pos.CENTER_RIGHT);
+        VBox box = new VBox(6, list, actions);
+        VBox.setVgrow(list, Priority.ALWAYS);
+
+        setContent(box);
+        setExpanded(false);
+        setAnimated(false);
+        getStyleClass().add("problem-panel");
+        setShowing(false);
+    }
+
+    /** 최근 것이 위로. 오래된 항목은 MAX_ITEMS를 넘으면 버린다. */
+    void report(Path file, String reason) {
+        report(String.valueOf(file.getFileName()), reason);
+    }
+
+    /** 경로로 만들 수 없는 항목(재생목록의 원문 등) */
+    void report(String item, String reason) {
+        items.add(0, item + " — " + reason);
+        if (items.size() > MAX_ITEMS) items.remove(MAX_ITEMS, items.size());
+        setText(String.format("건너뛴 파일 %,d개", items.size()));
+        setShowing(true);
+    }
+
+    private void clear() {
+        items.clear();
+        setShowing(false);
+    }
+
+    private void setShowing(boolean showing) {
+        setVisible(showing);
+        setManaged(showing);
+    }
+}
@@ -0,0 +1,114 @@
+package org.example;
+
+import javafx.animation.AnimationTimer;
+import javafx.scene.control.Label;
+import javafx.scene.control.Slider;
+import javafx.scene.media.MediaPlayer;
+import javafx.util.Duration;
+
+import java.util.function.LongConsumer;
+import java.util.function.Supplier;
+
+/**
+ * 재생 위치를 화면 프레임마다 한 번만 읽어 진행 UI를 갱신한다.
+ * currentTime 리스너처럼 엔진 틱마다 반응하지 않고, 표시되는 초가 바뀔 때만
+ * 슬라이더와 시간 라벨을 건드린다. 시간 문자열은 재사용 버퍼에 직접 찍는다.
+ * 일시정지/정지 상태에서는 타이머를 멈춰 둔다.
+ */
+final class ProgressTicker extends AnimationTimer {
+
+    private final Supplier<MediaPlayer> player;
+    private final Slider slider;
+    private final Label timeLabel;
+    private final LongConsumer onPosition;
+
+    private final StringBuilder text = new StringBuilder(24);
+    private long shownSec = -1;
+    private long shownTotalSec = -1;
+    // 라벨에 지금 찍혀 있는 값. 같은 초를 다시 보여 달라면 문자열을 만들지 않는다.
+    private long labelSec = -1;
+    private long labelTotalSec = -1;
+    private boolean running;
+
+    ProgressTicker(Supplier<MediaPlayer> player, Slider slider, Label timeLabel, LongConsumer onPosition) {
+        this.player = player;
+        this.slider = slider;
+        this.timeLabel = timeLabel;
+        this.onPosition = onPosition;
+    }
+
+    @Override
+    public void start() {
+        running = true;
+        super.start();
+    }
+
+    @Override
+    public void stop() {
+        running = false;
+        super.stop();
+    }
+
+    boolean isRunning() {
+        return running;
+    }
+
+    @Override
+    public void handle(long now) {
+        Metrics.UI_FRAMES.increment();
+        sample();
+    }
+
+    /** 타이머와 별개로 즉시 한 번 반영(탐색 직후, 일시정지 상태 등). */
+    void sample() {
+        MediaPlayer mp = player.get();
+        if (mp == null) return;
+        Duration total = mp.getTotalDuration();
+        if (total == null || total.isUnknown() || total.lessThanOrEqualTo(Duration.ZERO)) return;
+        long posMs = (long) mp.getCurrentTime().toMillis();
+        onPosition.accept(posMs);
+        // 드래그 중에는 라벨이 탐색 미리보기를 보여 준다
+        if (slider.isValueChanging()) return;
+
+        long sec = posMs / 1000;
+        long totalSec = (long) total.toSeconds();
+        if (sec == shownSec && totalSec == shownTotalSec) return;
+        shownSec = sec;
+        shownTotalSec = totalSec;
+        slider.setValue(sec);
+        show(sec, totalSec);
+    }
+
+    /** 라벨을 바로 이 값으로 맞춘다(곡 전환, 탐색 미리보기). 표시 중인 초와 같으면 아무것도 만들지 않는다. */
+    void show(long sec, long totalSec) {
+        shownSec = sec;
+        shownTotalSec = totalSec;
+        if (sec == labelSec && totalSec == labelTotalSec) return;
+        labelSec = sec;
+        labelTotalSec = totalSec;
+        Metrics.UI_UPDATES.increment();
+        text.setLength(0);
+        appendTime(text, sec);
+        text.append(" / ");
+        appendTime(text, totalSec);
+        timeLabel.setText(text.toString());
+    }
+
+    void reset() {
+        shownSec = -1;
+        shownTotalSec = -1;
+        labelSec = -1;
+        labelTotalSec = -1;
+    }
+
+    // mm:ss (60분 넘으면 분은 그대로 늘어남)
+    static void appendTime(StringBuilder sb, long seconds) {
+        if (seconds < 0) seconds = 0;
+        long m = seconds / 60;
+        long s = seconds % 60;
+        if (m < 10) sb.append('0');
+        sb.append(m).append(':');
+        if (s < 10) sb.append('0');
+        sb.append(s);
+    }
+}
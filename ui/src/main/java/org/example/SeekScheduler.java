@@ -0,0 +1,86 @@
+package org.example;
+
+import javafx.animation.Animation;
+import javafx.animation.PauseTransition;
+import javafx.scene.media.MediaPlayer;
+import javafx.util.Duration;
+
+import java.util.function.BiConsumer;
+import java.util.function.DoubleConsumer;
+
+/**
+ * 슬라이더 탐색 요청을 모아 실제 seek 횟수를 줄인다.
+ * 드래그 중에는 최신 목표만 남기고 MIN_INTERVAL에 한 번만 seek하며, 시간 라벨은 즉시 미리 보여 준다.
+ * 놓는 순간 남은 목표를 바로 반영한다. 한 번에 한 플레이어만 소유하고, 플레이어가 바뀌면 대기 중인 요청은 버린다.
+ * FX 스레드에서만 사용한다.
+ */
+final class SeekScheduler {
+
+    private static final long MIN_INTERVAL_NANOS = 150_000_000L;
+
+    private final BiConsumer<MediaPlayer, Duration> seek;
+    private final DoubleConsumer preview;
+    private final PauseTransition timer = new PauseTransition();
+
+    private MediaPlayer owner;
+    private double pendingSec = Double.NaN;
+    private double lastSec = Double.NaN;
+    private long lastSeekNanos;
+
+    /** seek: 실제 탐색, preview: 드래그 중 표시할 위치(초) */
+    SeekScheduler(BiConsumer<MediaPlayer, Duration> seek, DoubleConsumer preview) {
+        this.seek = seek;
+        this.preview = preview;
+        timer.setOnFinished(e -> flush());
+    }
+
+    void attach(MediaPlayer mp) {
+        cancel();
+        owner = mp;
+    }
+
+    /** 지금 소유한 플레이어일 때만 놓는다(이미 다른 플레이어로 바뀌었으면 무시). */
+    void detach(MediaPlayer mp) {
+        if (owner != mp) return;
+        cancel();
+        owner = null;
+    }
+
+    /** 목표 위치 갱신. 직전 seek에서 MIN_INTERVAL이 지났으면 바로, 아니면 그때 한 번에. */
+    void request(double sec) {
+        if (owner == null) return;
+        pendingSec = sec;
+        preview.accept(sec);
+        long wait = lastSeekNanos + MIN_INTERVAL_NANOS - System.nanoTime();
+        if (wait <= 0) {
+            timer.stop();
+            flush();
+        } else if (timer.getStatus() != Animation.Status.RUNNING) {
+            timer.setDuration(Duration.millis(wait / 1e6));
+            timer.playFromStart();
+        }
+    }
+
+    /** 드래그/클릭이 끝났을 때: 남은 목표를 바로 반영하고 다음 조작은 새로 시작. */
+    void commit() {
+        timer.stop();
+        flush();
+        lastSec = Double.NaN;
+    }
+
+    private void cancel() {
+        timer.stop();
+        pendingSec = Double.NaN;
+        lastSec = Double.NaN;
+    }
+
+    private void flush() {
+        if (owner == null || Double.isNaN(pendingSec)) return;
+        double sec = pendingSec;
+        pendingSec = Double.NaN;
+        if (sec == lastSec) return;   // 같은 드래그에서 이미 간 위치
+        lastSec = sec;
+        lastSeekNanos = System.nanoTime();
+        seek.accept(owner, Duration.seconds(sec));
+    }
+}
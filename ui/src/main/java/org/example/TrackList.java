@@ -0,0 +1,132 @@
+package org.example;
+
+import javafx.collections.ObservableListBase;
+
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * 재생목록: {@link TrackStore} id를 int 배열로 들고 ListView/FilteredList에 보여 주는 관찰 가능 목록.
+ * 원소 하나하나를 바꾸는 List 메서드는 막고, 구간 단위 변경만 한 번의 변경 알림으로 낸다.
+ * id → 위치 표를 함께 유지해서 {@link #indexOf(int)}는 상수 시간이다(다음 곡 계산마다 불린다).
+ * FX 스레드에서만 사용한다.
+ */
+final class TrackList extends ObservableListBase<Integer> implements PlayOrder.Tracks {
+
+    private int[] ids = new int[1024];
+    private int size;
+    private int[] posOf = new int[1024];   // id → 위치 + 1 (0 = 목록에 없음)
+
+    @Override
+    public Integer get(int index) {
+        return idAt(index);
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public int idAt(int index) {
+        if (index < 0 || index >= size) throw new IndexOutOfBoundsException(index);
+        return ids[index];
+    }
+
+    /** 지금 순서의 복사본(다른 스레드에 넘길 때) */
+    int[] ids() {
+        return Arrays.copyOf(ids, size);
+    }
+
+    boolean contains(int id) {
+        return id >= 0 && id < posOf.length && posOf[id] != 0;
+    }
+
+    @Override
+    public int indexOf(int id) {
+        return contains(id) ? posOf[id] - 1 : -1;
+    }
+
+    /** pos 위치에 src[from, to)를 끼워 넣는다. */
+    void insert(int pos, int[] src, int from, int to) {
+        int n = to - from;
+        if (n <= 0) return;
+        if (size + n > ids.length) ids = Arrays.copyOf(ids, Math.max(size + n, ids.length * 2));
+        System.arraycopy(ids, pos, ids, pos + n, size - pos);
+        System.arraycopy(src, from, ids, pos, n);
+        size += n;
+        reindex(pos, size);
+        beginChange();
+        nextAdd(pos, pos + n);
+        endChange();
+    }
+
+    /** [from, to) 구간을 뺀다. */
+    void removeIds(int from, int to) {
+        if (to <= from) return;
+        List<Integer> removed = boxed(Arrays.copyOfRange(ids, from, to));
+        for (int i = from; i < to; i++) posOf[ids[i]] = 0;
+        System.arraycopy(ids, to, ids, from, size - to);
+        size -= to - from;
+        reindex(from, size);
+        beginChange();
+        nextRemove(from, removed);
+        endChange();
+    }
+
+    /** 목록 전체를 바꾼다(폴더 변경, 세션 복원). */
+    void setAllIds(int[] next) {
+        List<Integer> removed = boxed(Arrays.copyOf(ids, size));
+        for (int i = 0; i < size; i++) posOf[ids[i]] = 0;
+        ids = Arrays.copyOf(next, Math.max(next.length, 16));
+        size = next.length;
+        reindex(0, size);
+        beginChange();
+        if (!removed.isEmpty()) nextRemove(0, removed);
+        if (size > 0) nextAdd(0, size);
+        endChange();
+    }
+
+    /**
+     * 같은 원소를 sorted 순서로 바꾼다(정렬). 항목 추가/삭제가 아니라 순열로 알려서
+     * 선택·필터가 통째로 다시 만들어지지 않는다.
+     */
+    void permute(int[] sorted) {
+        if (sorted.length != size) throw new IllegalArgumentException("size mismatch");
+        for (int i = 0; i < size; i++) {
+            if (!contains(sorted[i])) throw new IllegalArgumentException("not a member: " + sorted[i]);
+        }
+        int[] oldIds = Arrays.copyOf(ids, size);
+        System.arraycopy(sorted, 0, ids, 0, size);
+        reindex(0, size);
+        int[] perm = new int[size];
+        for (int i = 0; i < size; i++) perm[i] = posOf[oldIds[i]] - 1;
+        beginChange();
+        nextPermutation(0, size, perm);
+        endChange();
+    }
+
+    // [from, to) 위치의 id → 위치 표를 다시 쓴다
+    private void reindex(int from, int to) {
+        for (int i = from; i < to; i++) {
+            int id = ids[i];
+            if (id >= posOf.length) posOf = Arrays.copyOf(posOf, Math.max(id + 1, posOf.length * 2));
+            posOf[id] = i + 1;
+        }
+    }
+
+    private static List<Integer> boxed(int[] a) {
+        return new AbstractList<>() {
+            @Override
+            public Integer get(int i) {
+                return a[i];
+            }
+
+            @Override
+            public int size() {
+                return a.length;
+            }
+        };
+    }
+}